@@ -0,0 +1,52 @@
+package org.litesoft.utils.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.litesoft.utils.ISO8601ZtimeStamp;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Precision adjustment (<code>toMillis()</code> & <code>toNanos()</code>) of already normalized timestamps.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class AdjustBenchmark {
+    private ISO8601ZtimeStamp[] timeStamps;
+    private int index;
+
+    @Setup
+    public void setup() {
+        String[] inputs = Inputs.Sloppy.create(); // mix of precisions
+        timeStamps = new ISO8601ZtimeStamp[inputs.length];
+        for ( int i = 0; i < inputs.length; i++ ) {
+            timeStamps[i] = ISO8601ZtimeStamp.fromString( (i & 1) == 0 ? inputs[i] : Inputs.Zulu.create()[i] );
+        }
+    }
+
+    private ISO8601ZtimeStamp next() {
+        return timeStamps[index++ & (Inputs.COUNT - 1)];
+    }
+
+    @Benchmark
+    public ISO8601ZtimeStamp toMillis() {
+        return next().toMillis();
+    }
+
+    @Benchmark
+    public ISO8601ZtimeStamp toNanos() {
+        return next().toNanos();
+    }
+}
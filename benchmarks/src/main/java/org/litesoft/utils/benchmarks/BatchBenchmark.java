@@ -0,0 +1,67 @@
+package org.litesoft.utils.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.litesoft.utils.ISO8601ZtimeStamp;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * <code>normalizeAll</code> of a batch (<code>Inputs.COUNT</code> entries, reported per entry), with and without the
+ * (opt-in) canonical shape fast path, which checks & converts the batch a block at a time.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class BatchBenchmark {
+    @Param({"Zulu", "Offset", "Error"})
+    public Inputs mix;
+
+    private String[] inputs;
+    private final String[] out = new String[Inputs.COUNT];
+    private final long[] packed = new long[Inputs.COUNT];
+
+    @Setup
+    public void setup() {
+        inputs = mix.create();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(Inputs.COUNT)
+    public int normalizeAll() {
+        return ISO8601ZtimeStamp.normalizeAll( inputs, out, null );
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(Inputs.COUNT)
+    @Fork(value = 1, jvmArgsAppend = "-Dorg.litesoft.utils.canonicalFastPath=true")
+    public int normalizeAllCanonicalFastPath() {
+        return ISO8601ZtimeStamp.normalizeAll( inputs, out, null );
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(Inputs.COUNT)
+    public int normalizeAllPacked() {
+        return ISO8601ZtimeStamp.normalizeAll( inputs, packed, null, null );
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(Inputs.COUNT)
+    @Fork(value = 1, jvmArgsAppend = "-Dorg.litesoft.utils.canonicalFastPath=true")
+    public int normalizeAllPackedCanonicalFastPath() {
+        return ISO8601ZtimeStamp.normalizeAll( inputs, packed, null, null );
+    }
+}
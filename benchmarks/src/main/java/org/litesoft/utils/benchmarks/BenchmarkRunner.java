@@ -0,0 +1,22 @@
+package org.litesoft.utils.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks (any standard JMH command line options, e.g. a benchmark regex, are honored) with the GC
+ * profiler, so that the allocation rates (gc.alloc.rate.norm = bytes per operation) are reported.
+ */
+public class BenchmarkRunner {
+    public static void main( String[] args )
+            throws RunnerException, CommandLineOptionException {
+        new Runner( new OptionsBuilder()
+                            .parent( new CommandLineOptions( args ) )
+                            .addProfiler( GCProfiler.class )
+                            .build() ).run();
+    }
+}
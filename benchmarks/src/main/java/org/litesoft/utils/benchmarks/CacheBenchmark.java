@@ -0,0 +1,66 @@
+package org.litesoft.utils.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.litesoft.utils.CachingNormalizer;
+import org.litesoft.utils.ISO8601ZtimeStamp;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * <code>CachingNormalizer</code> hits, contended (one shared cache, many threads): every input is cached, so this measures
+ * the hit path (lookup & access recording), with an uncached <code>fromString</code> baseline.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(8)
+@State(Scope.Benchmark)
+public class CacheBenchmark {
+    @Param({"LRU", "TINY_LFU"})
+    public CachingNormalizer.Policy policy;
+
+    private String[] inputs;
+    private CachingNormalizer cache;
+
+    @Setup
+    public void setup() {
+        inputs = Inputs.Zulu.create();
+        cache = new CachingNormalizer( Inputs.COUNT * 2, policy );
+        for ( String input : inputs ) {
+            cache.fromString( input );
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        private int index;
+
+        @Setup
+        public void setup() {
+            index = (int)(Thread.currentThread().getId() * 31); // threads start at different inputs
+        }
+    }
+
+    @Benchmark
+    public ISO8601ZtimeStamp cachedHit( Cursor cursor ) {
+        return cache.fromString( inputs[cursor.index++ & (Inputs.COUNT - 1)] );
+    }
+
+    @Benchmark
+    public ISO8601ZtimeStamp uncached( Cursor cursor ) {
+        return ISO8601ZtimeStamp.fromString( inputs[cursor.index++ & (Inputs.COUNT - 1)] );
+    }
+}
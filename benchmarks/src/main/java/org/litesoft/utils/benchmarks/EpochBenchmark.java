@@ -0,0 +1,76 @@
+package org.litesoft.utils.benchmarks;
+
+import java.time.Instant;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.litesoft.utils.ISO8601ZtimeStamp;
+import org.litesoft.utils.ZtimeStampClock;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Epoch based creation: <code>fromEpochMillis</code>, <code>now()</code> (exact and coarse clocks); and the reverse: <code>toEpochMillis</code>
+ * (with a <code>java.time</code> baseline).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class EpochBenchmark {
+    private final long[] epochMillis = new long[Inputs.COUNT];
+    private final ISO8601ZtimeStamp[] timeStamps = new ISO8601ZtimeStamp[Inputs.COUNT];
+    private ZtimeStampClock coarseClock;
+    private int index;
+
+    @Setup
+    public void setup() {
+        Random random = new Random( 8601 );
+        for ( int i = 0; i < epochMillis.length; i++ ) {
+            epochMillis[i] = Inputs.epochMillis( random );
+            timeStamps[i] = ISO8601ZtimeStamp.fromEpochMillis( epochMillis[i] );
+        }
+        coarseClock = ZtimeStampClock.coarse( 1 );
+    }
+
+    @TearDown
+    public void tearDown() {
+        coarseClock.close();
+    }
+
+    @Benchmark
+    public ISO8601ZtimeStamp fromEpochMillis() {
+        return ISO8601ZtimeStamp.fromEpochMillis( epochMillis[index++ & (Inputs.COUNT - 1)] );
+    }
+
+    @Benchmark
+    public long toEpochMillis() {
+        return timeStamps[index++ & (Inputs.COUNT - 1)].toEpochMillis();
+    }
+
+    @Benchmark
+    public long toEpochMillisViaInstant() {
+        return Instant.parse( timeStamps[index++ & (Inputs.COUNT - 1)].getValue() ).toEpochMilli();
+    }
+
+    @Benchmark
+    public ISO8601ZtimeStamp now() {
+        return ISO8601ZtimeStamp.now();
+    }
+
+    @Benchmark
+    public ISO8601ZtimeStamp nowCoarse() {
+        return coarseClock.now();
+    }
+}
@@ -0,0 +1,89 @@
+package org.litesoft.utils.benchmarks;
+
+import java.time.Instant;
+import java.util.Random;
+
+/**
+ * Realistic (deterministically generated) input mixes for the benchmarks.
+ */
+public enum Inputs {
+    /**
+     * Canonical Zulu, millisecond precision, e.g. "2022-07-27T16:38:34.123Z"
+     */
+    Zulu {
+        @Override
+        String create( Random random ) {
+            return Instant.ofEpochMilli( epochMillis( random ) ).toString();
+        }
+    },
+    /**
+     * "+hh:mm" / "-hh:mm" offsets (quarter hours), e.g. "2022-07-27T16:38:34.123+05:30"
+     */
+    Offset {
+        @Override
+        String create( Random random ) {
+            String zulu = Instant.ofEpochMilli( epochMillis( random ) ).toString();
+            int hours = random.nextInt( 12 );
+            int minutes = 15 * random.nextInt( 4 );
+            return zulu.substring( 0, zulu.length() - 1 ) + (random.nextBoolean() ? '+' : '-') +
+                   two( hours ) + ":" + two( minutes );
+        }
+    },
+    /**
+     * Sloppy (but acceptable) forms, e.g. "11-1-2T0:5:6.7Z"
+     */
+    Sloppy {
+        @Override
+        String create( Random random ) {
+            return (1 + random.nextInt( 2100 )) + "-" + (1 + random.nextInt( 12 )) + "-" + (1 + random.nextInt( 28 )) +
+                   "t" + random.nextInt( 24 ) + ":" + random.nextInt( 60 ) + ":" + random.nextInt( 60 ) +
+                   "." + random.nextInt( 10 ) + (random.nextBoolean() ? "z" : "Z");
+        }
+    },
+    /**
+     * Offsets that roll over (or under) the day, month, and year, e.g. "2011-12-31T23:35+0:30"
+     */
+    Rollover {
+        @Override
+        String create( Random random ) {
+            int year = 1970 + random.nextInt( 100 );
+            return random.nextBoolean() ?
+                   (year + "-12-31T23:" + (30 + random.nextInt( 30 )) + "+0:45") :
+                   (year + "-01-01T00:" + random.nextInt( 30 ) + "-0:45");
+        }
+    },
+    /**
+     * Garbage that is rejected, e.g. "2011-01-16T13" (no 'Z' or offset)
+     */
+    Error {
+        private final String[] errors = {"2011-01-16 13Z", "2011-0x-16T13Z", "12011-01-16T13Z", "2011-01T13Z",
+                                         "2011-01-16T13", "2011-01-16T13+1+2", "2011-01-16T13-1:2",
+                                         "2011-01-16T13:00:00.0123456789Z", "9999-12-31T23+2", "  "};
+
+        @Override
+        String create( Random random ) {
+            return errors[random.nextInt( errors.length )];
+        }
+    };
+
+    public static final int COUNT = 1024; // power of 2
+
+    abstract String create( Random random );
+
+    public String[] create() {
+        Random random = new Random( 8601 + ordinal() );
+        String[] inputs = new String[COUNT];
+        for ( int i = 0; i < inputs.length; i++ ) {
+            inputs[i] = create( random );
+        }
+        return inputs;
+    }
+
+    static long epochMillis( Random random ) {
+        return 946684800000L + (long)(random.nextDouble() * 1_000_000_000_000L); // 2000 thru ~2031
+    }
+
+    private static String two( int value ) {
+        return (value < 10) ? ("0" + value) : Integer.toString( value );
+    }
+}
@@ -0,0 +1,96 @@
+package org.litesoft.utils.benchmarks;
+
+import java.nio.charset.StandardCharsets;
+import java.time.OffsetDateTime;
+import java.util.concurrent.TimeUnit;
+
+import org.litesoft.utils.ISO8601ZtimeStamp;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * <code>fromString</code> (and the validate-only <code>isValid</code>) over the input mixes, with a <code>java.time</code> baseline (for the mixes it can parse).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ParseBenchmark {
+    @Param({"Zulu", "Offset", "Sloppy", "Rollover", "Error"})
+    public Inputs mix;
+
+    private String[] inputs;
+    private byte[][] utf8s;
+    private int index;
+
+    @Setup
+    public void setup() {
+        inputs = mix.create();
+        utf8s = new byte[inputs.length][];
+        for ( int i = 0; i < inputs.length; i++ ) {
+            utf8s[i] = inputs[i].getBytes( StandardCharsets.UTF_8 );
+        }
+    }
+
+    private String next() {
+        return inputs[index++ & (Inputs.COUNT - 1)];
+    }
+
+    @Benchmark
+    public ISO8601ZtimeStamp fromString() {
+        return ISO8601ZtimeStamp.fromString( next() );
+    }
+
+    /**
+     * <code>fromString</code> with the (opt-in) canonical shape (SWAR) fast path turned on (compare with
+     * <code>fromString</code>, e.g. on the Zulu mix, to decide whether to enable it).
+     */
+    @Benchmark
+    @Fork(value = 1, jvmArgsAppend = "-Dorg.litesoft.utils.canonicalFastPath=true")
+    public ISO8601ZtimeStamp fromStringCanonicalFastPath() {
+        return ISO8601ZtimeStamp.fromString( next() );
+    }
+
+    /**
+     * The bytes (e.g. from a network buffer) parsed in place, vs. decoding them and calling <code>fromString</code>.
+     */
+    @Benchmark
+    public ISO8601ZtimeStamp fromBytes() {
+        byte[] utf8 = utf8s[index++ & (Inputs.COUNT - 1)];
+        return ISO8601ZtimeStamp.fromBytes( utf8, 0, utf8.length );
+    }
+
+    @Benchmark
+    public ISO8601ZtimeStamp decodeThenFromString() {
+        return ISO8601ZtimeStamp.fromString( new String( utf8s[index++ & (Inputs.COUNT - 1)], StandardCharsets.UTF_8 ) );
+    }
+
+    @Benchmark
+    public boolean isValid() {
+        return ISO8601ZtimeStamp.isValid( next() );
+    }
+
+    /**
+     * Baseline: only meaningful for the Zulu & Offset mixes (the others throw, which is caught).
+     */
+    @Benchmark
+    public String javaTime() {
+        try {
+            return OffsetDateTime.parse( next() ).toInstant().toString();
+        }
+        catch ( RuntimeException e ) {
+            return null;
+        }
+    }
+}
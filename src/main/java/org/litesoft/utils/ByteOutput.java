@@ -0,0 +1,88 @@
+package org.litesoft.utils;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * Buffered byte output that either drains to a <code>WritableByteChannel</code> when full, or (with no channel) grows in memory.
+ */
+final class ByteOutput {
+    private final WritableByteChannel channel;
+    private ByteBuffer buffer;
+
+    /**
+     * @param channel to drain to, or null to collect in memory
+     */
+    ByteOutput( WritableByteChannel channel, int capacity ) {
+        this.channel = channel;
+        buffer = ByteBuffer.allocate( capacity );
+    }
+
+    void put( byte b ) throws IOException {
+        room( 1 );
+        buffer.put( b );
+    }
+
+    void put( byte[] src, int offset, int length ) throws IOException {
+        while ( length > 0 ) {
+            int chunk = room( length );
+            buffer.put( src, offset, chunk );
+            offset += chunk;
+            length -= chunk;
+        }
+    }
+
+    /**
+     * Copy (without changing the <code>src</code> position) the bytes from its position to its limit.
+     */
+    void put( ByteBuffer src ) throws IOException {
+        put( src, src.position(), src.limit() );
+    }
+
+    /**
+     * Copy (without changing the <code>src</code> position) the bytes from <code>start</code> to <code>end</code>.
+     */
+    void put( ByteBuffer src, int start, int end ) throws IOException {
+        while ( start < end ) {
+            int chunk = room( end - start );
+            buffer.put( buffer.position(), src, start, chunk );
+            buffer.position( buffer.position() + chunk );
+            start += chunk;
+        }
+    }
+
+    /**
+     * @return the bytes collected in memory (flipped for reading), only meaningful with no channel
+     */
+    ByteBuffer collected() {
+        return buffer.duplicate().flip();
+    }
+
+    void flush() throws IOException {
+        if ( channel != null ) {
+            buffer.flip();
+            while ( buffer.hasRemaining() ) {
+                channel.write( buffer );
+            }
+            buffer.clear();
+        }
+    }
+
+    /**
+     * Ensure that there is room for at least some of the <code>wanted</code> bytes.
+     *
+     * @return how many of the <code>wanted</code> bytes there is room for
+     */
+    private int room( int wanted ) throws IOException {
+        if ( !buffer.hasRemaining() ) {
+            if ( channel != null ) {
+                flush();
+            } else {
+                ByteBuffer bigger = ByteBuffer.allocate( Math.max( buffer.capacity() * 2, buffer.capacity() + wanted ) );
+                buffer = bigger.put( buffer.flip() );
+            }
+        }
+        return Math.min( wanted, buffer.remaining() );
+    }
+}
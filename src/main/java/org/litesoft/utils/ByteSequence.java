@@ -0,0 +1,72 @@
+package org.litesoft.utils;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Re-targetable <code>CharSequence</code> view of (ASCII) bytes in a <code>ByteBuffer</code> or <code>byte[]</code>, so that text can be parsed
+ * without decoding it into a <code>String</code>.
+ * <p>
+ * Each byte is a <code>char</code> (non-ASCII bytes show up as chars above 127), however <code>toString()</code> and
+ * <code>subSequence</code> decode the bytes as UTF-8.
+ * <p>
+ * Note: uses absolute <code>ByteBuffer</code> access, so the buffer's position and limit are NOT changed.
+ */
+final class ByteSequence implements CharSequence {
+    private ByteBuffer buffer;
+    private byte[] array; // used instead of the buffer when not null
+    private int offset;
+    private int length;
+
+    ByteSequence set( ByteBuffer buffer, int offset, int length ) {
+        this.buffer = buffer;
+        this.array = null;
+        this.offset = offset;
+        this.length = length;
+        return this;
+    }
+
+    ByteSequence set( byte[] array, int offset, int length ) {
+        this.buffer = null;
+        this.array = array;
+        this.offset = offset;
+        this.length = length;
+        return this;
+    }
+
+    /**
+     * Release the (caller's) bytes.
+     */
+    void clear() {
+        set( (byte[])null, 0, 0 );
+    }
+
+    @Override
+    public int length() {
+        return length;
+    }
+
+    @Override
+    public char charAt( int index ) {
+        return (char)(((array != null) ? array[offset + index] : buffer.get( offset + index )) & 0xFF);
+    }
+
+    @Override
+    public CharSequence subSequence( int start, int end ) {
+        return decode( offset + start, end - start );
+    }
+
+    @Override
+    public String toString() {
+        return decode( offset, length );
+    }
+
+    private String decode( int at, int count ) {
+        if ( array != null ) {
+            return new String( array, at, count, StandardCharsets.UTF_8 );
+        }
+        byte[] bytes = new byte[count];
+        buffer.get( at, bytes );
+        return new String( bytes, StandardCharsets.UTF_8 );
+    }
+}
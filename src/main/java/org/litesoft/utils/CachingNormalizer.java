@@ -0,0 +1,231 @@
+package org.litesoft.utils;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Opt-in, bounded, memoizing front-end to <code>ISO8601ZtimeStamp.fromString</code> for feeds that heavily repeat their
+ * raw timestamps (e.g. second resolution logs, or batch jobs stamping many rows with the same instant).
+ * <p>
+ * Both normalized AND error results are cached (instances are immutable).  The cache is split into (up to 16)
+ * independently locked segments, so it is safe (and reasonably scalable) for many threads; the parse on a miss is
+ * done outside any lock.
+ * <p>
+ * Eviction policies:<ul>
+ * <li> <code>LRU</code>: the least recently used entry is evicted to make room for each new entry, AND
+ * <li> <code>TINY_LFU</code>: the same LRU order, but a new entry is only admitted if its (approximate, 4-bit, aging)
+ * frequency is higher than that of the entry it would evict; so one-off values can not flush the popular ones.
+ * </ul><p>
+ * The hit, miss, eviction, and (<code>TINY_LFU</code>) rejection counters show if the cache pays off for a given feed.
+ */
+@SuppressWarnings("unused")
+public final class CachingNormalizer {
+    public enum Policy {LRU, TINY_LFU}
+
+    private static final int MAX_SEGMENTS = 16;
+    private static final int MIN_SEGMENT_SIZE = 64;
+
+    private final int maximumSize;
+    private final Policy policy;
+    private final Segment[] segments;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder rejections = new LongAdder();
+
+    /**
+     * @param maximumSize maximum number of cached results (at least 1)
+     * @param policy      eviction (and admission) policy
+     * @throws IllegalArgumentException if <code>maximumSize</code> is less than 1 or the <code>policy</code> is null
+     */
+    public CachingNormalizer( int maximumSize, Policy policy ) {
+        if ( maximumSize < 1 ) {
+            throw new IllegalArgumentException( "expected maximumSize of at least 1, but got: " + maximumSize );
+        }
+        if ( policy == null ) {
+            throw new IllegalArgumentException( "no policy" );
+        }
+        this.maximumSize = maximumSize;
+        this.policy = policy;
+        int count = Integer.highestOneBit( Math.max( 1, Math.min( MAX_SEGMENTS, maximumSize / MIN_SEGMENT_SIZE ) ) );
+        segments = new Segment[count];
+        for ( int i = 0; i < count; i++ ) {
+            segments[i] = new Segment( (maximumSize / count) + ((i < (maximumSize % count)) ? 1 : 0) );
+        }
+    }
+
+    public int getMaximumSize() {
+        return maximumSize;
+    }
+
+    public Policy getPolicy() {
+        return policy;
+    }
+
+    /**
+     * Cached form of <code>ISO8601ZtimeStamp.fromString</code> (a null <code>iso8601ish</code> is not cached).
+     *
+     * @param iso8601ish to parse
+     * @return instance, possibly with an error (and hence a bad value)!
+     */
+    public ISO8601ZtimeStamp fromString( String iso8601ish ) {
+        if ( iso8601ish == null ) {
+            return ISO8601ZtimeStamp.fromString( null );
+        }
+        int hash = spread( iso8601ish.hashCode() );
+        Segment segment = segments[hash & (segments.length - 1)];
+        ISO8601ZtimeStamp result = segment.get( iso8601ish, hash );
+        if ( result != null ) {
+            hits.increment();
+            return result;
+        }
+        misses.increment();
+        result = ISO8601ZtimeStamp.fromString( iso8601ish );
+        segment.put( iso8601ish, result );
+        return result;
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * @return the number of entries evicted to make room for new entries
+     */
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    /**
+     * @return the number of new entries NOT admitted (<code>TINY_LFU</code> only)
+     */
+    public long getRejections() {
+        return rejections.sum();
+    }
+
+    /**
+     * @return the current number of cached results
+     */
+    public int size() {
+        int size = 0;
+        for ( Segment segment : segments ) {
+            size += segment.size();
+        }
+        return size;
+    }
+
+    @Override
+    public String toString() {
+        return "hits: " + getHits() + ", misses: " + getMisses() + ", evictions: " + getEvictions() +
+               ", rejections: " + getRejections();
+    }
+
+    private static int spread( int hash ) {
+        hash ^= hash >>> 16;
+        hash *= 0x45d9f3b;
+        return hash ^ (hash >>> 16);
+    }
+
+    private final class Segment {
+        private final LinkedHashMap<String, ISO8601ZtimeStamp> map = new LinkedHashMap<>( 16, 0.75f, true ); // access order
+        private final int capacity;
+        private final FrequencySketch sketch; // null when LRU
+
+        Segment( int capacity ) {
+            this.capacity = capacity;
+            sketch = (policy == Policy.TINY_LFU) ? new FrequencySketch( capacity ) : null;
+        }
+
+        synchronized ISO8601ZtimeStamp get( String key, int hash ) {
+            if ( sketch != null ) {
+                sketch.increment( hash );
+            }
+            return map.get( key );
+        }
+
+        synchronized void put( String key, ISO8601ZtimeStamp value ) {
+            if ( (map.size() >= capacity) && !map.containsKey( key ) ) {
+                Iterator<Map.Entry<String, ISO8601ZtimeStamp>> eldest = map.entrySet().iterator();
+                String victim = eldest.next().getKey();
+                if ( (sketch != null) &&
+                     (sketch.frequency( spread( key.hashCode() ) ) <= sketch.frequency( spread( victim.hashCode() ) )) ) {
+                    rejections.increment();
+                    return;
+                }
+                eldest.remove();
+                evictions.increment();
+            }
+            map.put( key, value );
+        }
+
+        synchronized int size() {
+            return map.size();
+        }
+    }
+
+    /**
+     * Count-Min sketch of 4-bit counters (16 per <code>long</code>, 4 rows), which are all halved after a sample period
+     * (10 x the capacity) of increments, so that the frequencies age.
+     */
+    static final class FrequencySketch {
+        private static final int MIN_CAPACITY = 32;
+        private static final long[] SEEDS = {0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L};
+
+        private final long[] table;
+        private final int sampleSize;
+        private int additions;
+
+        FrequencySketch( int capacity ) {
+            capacity = Math.max( MIN_CAPACITY, capacity ); // so tiny caches don't age (nearly) continuously
+            table = new long[Integer.highestOneBit( capacity - 1 ) << 1];
+            sampleSize = 10 * capacity;
+        }
+
+        int frequency( int hash ) {
+            int min = 15;
+            for ( int i = 0; i < SEEDS.length; i++ ) {
+                long h = rowHash( hash, i );
+                min = Math.min( min, (int)(table[index( h )] >>> offset( h )) & 15 );
+            }
+            return min;
+        }
+
+        void increment( int hash ) {
+            boolean added = false;
+            for ( int i = 0; i < SEEDS.length; i++ ) {
+                long h = rowHash( hash, i );
+                int index = index( h );
+                int offset = offset( h );
+                if ( ((table[index] >>> offset) & 15) != 15 ) {
+                    table[index] += 1L << offset;
+                    added = true;
+                }
+            }
+            if ( added && (++additions == sampleSize) ) {
+                for ( int i = 0; i < table.length; i++ ) {
+                    table[i] = (table[i] >>> 1) & 0x7777777777777777L;
+                }
+                additions /= 2;
+            }
+        }
+
+        private static long rowHash( int hash, int row ) {
+            long h = (hash + SEEDS[row]) * SEEDS[row];
+            return h + (h >>> 32);
+        }
+
+        private int index( long h ) {
+            return (int)h & (table.length - 1);
+        }
+
+        private static int offset( long h ) {
+            return ((int)(h >>> 48) & 15) << 2;
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package org.litesoft.utils;
+
+/**
+ * Pure integer, (proleptic) Gregorian, civil date to/from epoch day (days since 1970-01-01) arithmetic for the years
+ * 1 thru 9999, using <code>GregorianMonth</code>'s leap year rules (and days in month).
+ * <p>
+ * Civil dates are returned packed into an <code>int</code>: year(14) month(4) day(5), see <code>year</code>,
+ * <code>month</code>, and <code>day</code>.
+ */
+final class EpochDays {
+    private static final int DAYS_PER_400_YEARS = 146097;
+    private static final int DAYS_PER_100_YEARS = 36524;
+    private static final int DAYS_PER_4_YEARS = 1461;
+    private static final int[] DAYS_BEFORE_MONTH = {0, 31, 59, 90, 120, 151, 181, 212, 243, 273, 304, 334};
+    private static final GregorianMonth[] MONTHS = GregorianMonth.values();
+
+    static final long SECONDS_PER_DAY = 86400;
+    static final long MIN = daysBeforeYear( 1 ) - daysBeforeYear( 1970 ); // 0001-01-01
+    static final long MAX = daysBeforeYear( 10000 ) - daysBeforeYear( 1970 ) - 1; // 9999-12-31
+
+    private EpochDays() {
+    }
+
+    /**
+     * @return true if the <code>epochDay</code> is within the years 1 thru 9999
+     */
+    static boolean inRange( long epochDay ) {
+        return (MIN <= epochDay) && (epochDay <= MAX);
+    }
+
+    /**
+     * @param year  1-9999
+     * @param month 1-12
+     * @param day   1-(days in the month)
+     * @return the days since 1970-01-01 (negative before)
+     */
+    static long fromCivil( int year, int month, int day ) {
+        int dayOfYear = DAYS_BEFORE_MONTH[month - 1] + day - 1;
+        if ( (month > 2) && GregorianMonth.isLeapYear( year ) ) {
+            dayOfYear++;
+        }
+        return daysBeforeYear( year ) - daysBeforeYear( 1970 ) + dayOfYear;
+    }
+
+    /**
+     * @param epochDay days since 1970-01-01, which must be <code>inRange</code>
+     * @return the packed civil date
+     */
+    static int toCivil( long epochDay ) {
+        int days = (int)(epochDay - MIN); // days since 0001-01-01
+        int y400 = days / DAYS_PER_400_YEARS;
+        days -= y400 * DAYS_PER_400_YEARS;
+        int y100 = Math.min( 3, days / DAYS_PER_100_YEARS ); // the 400th year's leap day
+        days -= y100 * DAYS_PER_100_YEARS;
+        int y4 = days / DAYS_PER_4_YEARS;
+        days -= y4 * DAYS_PER_4_YEARS;
+        int y1 = Math.min( 3, days / 365 ); // the 4th year's leap day
+        days -= y1 * 365;
+        int year = (400 * y400) + (100 * y100) + (4 * y4) + y1 + 1;
+        int month = 1;
+        for ( int inMonth; days >= (inMonth = MONTHS[month - 1].getDaysInMonth( year )); month++ ) {
+            days -= inMonth;
+        }
+        return (year << 9) | (month << 5) | (days + 1);
+    }
+
+    static int year( int civil ) {
+        return civil >>> 9;
+    }
+
+    static int month( int civil ) {
+        return (civil >>> 5) & 15;
+    }
+
+    static int day( int civil ) {
+        return civil & 31;
+    }
+
+    private static long daysBeforeYear( int year ) {
+        long y = year - 1;
+        return (365 * y) + (y / 4) - (y / 100) + (y / 400);
+    }
+}
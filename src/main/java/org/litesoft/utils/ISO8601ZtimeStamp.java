@@ -1,6 +1,10 @@
 package org.litesoft.utils;
 
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.time.Instant;
+import java.util.Comparator;
 import java.util.Objects;
 import java.util.function.Consumer;
 import java.util.function.LongSupplier;
@@ -19,9 +23,12 @@ import java.util.function.LongSupplier;
  * as of mid 2022: Afghanistan, Iran, Ethiopia, and Nepal), Saudi Arabia only adopted it in 2016; if we limit ourselves to:
  * Africa, the Americas, Western Europe, and former British colonies in Asia and the Pacific (e.g. India & Australia); any
  * dates after 1767 (thanks Alaska) are contemporarily correct!
+ * <p>
+ * The natural ordering is chronological; for the same instant, finer precisions order first (e.g. "...T13:00Z" before
+ * "...T13Z", matching <code>PackedZtimeStamp</code>); and errors (ordered by their value) order last.
  */
 @SuppressWarnings("unused")
-public class ISO8601ZtimeStamp {
+public class ISO8601ZtimeStamp implements Comparable<ISO8601ZtimeStamp> {
     // General:
     public static final String TO_PARSE_WAS_NULL = "null";
     public static final String TO_PARSE_WAS_EMPTY = "empty";
@@ -51,28 +58,87 @@ public class ISO8601ZtimeStamp {
     public static final String DATE_YEAR_ROLLED_GT_9999 = "adjusted year not allowed to exceed 4 digits";
     public static final String DATE_YEAR_ROLLED_LT_1 = "adjusted year not allowed to be less than 1";
 
-    private final String value;
-    private final String error;
+    // Post normalization:
+    public static final String TIME_LENGTH_NO_MATCH = "no matching TimeLength";
+
+    /**
+     * Chronological ordering that ignores the precision (e.g. "...T13:00Z" and "...T13Z" are the same), errors last.
+     */
+    public static final Comparator<ISO8601ZtimeStamp> BY_INSTANT = ISO8601ZtimeStamp::compareInstants;
+
+    private static final long UNKEYABLE = Long.MAX_VALUE; // errors (and values outside the years 1-9999) order last
+
+    private final String value; // null when there is an error (see ZtimeStampError.getValue())
+    private final TimeLength timeLength; // null when there is an error (or the value has no matching TimeLength)
+    private final ZtimeStampError error;
+    // Lazily computed (the sort key is published by 'keyed', the hash is a benign race as it is always the same):
+    private long keySeconds;
+    private int keyNanos;
+    private volatile boolean keyed;
+    private int hash;
+
+    ISO8601ZtimeStamp( String value, String error ) {
+        this.value = (error == null) ? value : null;
+        this.timeLength = (error == null) ? TimeLength.from( value ) : null;
+        this.error = (error == null) ? null : ZtimeStampError.fromMessage( error, value );
+    }
+
+    ISO8601ZtimeStamp( String value ) {
+        this( value, TimeLength.from( value ) );
+    }
 
-    private ISO8601ZtimeStamp( String value, String error ) {
+    /**
+     * @param timeLength of the <code>value</code> (must match it, i.e. what <code>TimeLength.from( value )</code> returns)
+     */
+    ISO8601ZtimeStamp( String value, TimeLength timeLength ) {
         this.value = value;
-        this.error = error;
+        this.timeLength = timeLength;
+        this.error = null;
     }
 
-    private ISO8601ZtimeStamp( String value ) {
-        this( value, null );
+    ISO8601ZtimeStamp( ZtimeStampError error ) {
+        this.value = null;
+        this.timeLength = null;
+        this.error = error;
     }
 
+    /**
+     * @return the normalized value, OR if there is an error, the trimmed & upper-cased input
+     */
     public String getValue() {
-        return value;
+        return (error == null) ? value : error.getValue();
     }
 
+    /**
+     * @return the (human-readable) error message, or null if there is no error
+     */
     public String getError() {
+        return (error == null) ? null : error.getMessage();
+    }
+
+    /**
+     * @return the error Code (no String work), or null if there is no error
+     */
+    public ZtimeStampError.Code getErrorCode() {
+        return (error == null) ? null : error.getCode();
+    }
+
+    /**
+     * @return the structured error (Code, Field, & position), or null if there is no error
+     */
+    public ZtimeStampError getErrorDetail() {
         return error;
     }
 
     public boolean hasError() {
-        return (getError() != null);
+        return (error != null);
+    }
+
+    /**
+     * @return the precision of the normalized value, or null if there is an error
+     */
+    public TimeLength getTimeLength() {
+        return timeLength;
     }
 
     public ISO8601ZtimeStamp toHour() {
@@ -99,10 +165,139 @@ public class ISO8601ZtimeStamp {
         return adjustTo( TimeLength.Nanos );
     }
 
+    /**
+     * @return true if NOT an error and the precision is NOT Nanos (see <code>PackedZtimeStamp</code>)
+     */
+    public boolean isPackable() {
+        if ( hasError() ) {
+            return false;
+        }
+        return (timeLength != null) && (timeLength != TimeLength.Nanos) && (digitsAt( 0, 4 ) != 0);
+    }
+
+    /**
+     * Pack this timestamp (and its precision) into a <code>long</code> (see <code>PackedZtimeStamp</code>).
+     *
+     * @throws IllegalStateException if not <code>isPackable()</code>
+     */
+    public long toPackedLong() {
+        if ( !isPackable() ) {
+            throw new IllegalStateException( "not packable: " + this );
+        }
+        int micros = switch ( timeLength ) {
+            case Millis -> digitsAt( 20, 3 ) * 1000;
+            case Micros -> digitsAt( 20, 6 );
+            default -> 0;
+        };
+        return PackedZtimeStamp.packUnchecked( digitsAt( 0, 4 ), digitsAt( 5, 2 ), digitsAt( 8, 2 ),
+                                               digitsAt( 11, 2 ), digitsAt( 14, 2 ), digitsAt( 17, 2 ),
+                                               micros, timeLength );
+    }
+
+    /**
+     * Write the (ASCII) normalized value into the <code>buf</code> at <code>offset</code>.
+     *
+     * @return the offset just past the written value
+     * @throws IllegalStateException     if <code>hasError()</code>
+     * @throws IndexOutOfBoundsException if the value does not fit
+     */
+    public int writeTo( byte[] buf, int offset ) {
+        String value = checkedValue();
+        Objects.checkFromIndexSize( offset, value.length(), buf.length );
+        for ( int i = 0; i < value.length(); i++ ) {
+            buf[offset++] = (byte)value.charAt( i );
+        }
+        return offset;
+    }
+
+    /**
+     * Write (relative, i.e. advancing the position) the (ASCII) normalized value into the <code>buffer</code>.
+     *
+     * @return the <code>buffer</code>
+     * @throws IllegalStateException   if <code>hasError()</code>
+     * @throws BufferOverflowException if the value does not fit
+     */
+    public ByteBuffer writeTo( ByteBuffer buffer ) {
+        String value = checkedValue();
+        if ( buffer.remaining() < value.length() ) {
+            throw new BufferOverflowException();
+        }
+        for ( int i = 0; i < value.length(); i++ ) {
+            buffer.put( (byte)value.charAt( i ) );
+        }
+        return buffer;
+    }
+
+    /**
+     * @return the seconds since 1970-01-01T00Z (negative before)
+     * @throws IllegalStateException if <code>hasError()</code>
+     */
+    public long toEpochSecond() {
+        checkedValue();
+        long epochDay = EpochDays.fromCivil( digitsAt( 0, 4 ), digitsAt( 5, 2 ), digitsAt( 8, 2 ) );
+        return (epochDay * EpochDays.SECONDS_PER_DAY) + (digitsAt( 11, 2 ) * 3600) + (digitsAt( 14, 2 ) * 60) + digitsAt( 17, 2 );
+    }
+
+    /**
+     * @return the fraction of the second (as nanos), which with <code>toEpochSecond()</code> is the full timestamp
+     * @throws IllegalStateException if <code>hasError()</code>
+     */
+    public int getNanoOfSecond() {
+        checkedValue();
+        return (digitsAt( 20, 3 ) * 1000000) + (digitsAt( 23, 3 ) * 1000) + digitsAt( 26, 3 );
+    }
+
+    /**
+     * @return the millis since 1970-01-01T00Z (finer precision is dropped, like <code>Instant.toEpochMilli()</code>)
+     * @throws IllegalStateException if <code>hasError()</code>
+     */
+    public long toEpochMillis() {
+        return (toEpochSecond() * 1000) + (getNanoOfSecond() / 1000000);
+    }
+
+    /**
+     * @return the micros since 1970-01-01T00Z (finer precision is dropped)
+     * @throws IllegalStateException if <code>hasError()</code>
+     */
+    public long toEpochMicros() {
+        return (toEpochSecond() * 1000000) + (getNanoOfSecond() / 1000);
+    }
+
+    /**
+     * @return the nanos since 1970-01-01T00Z
+     * @throws IllegalStateException if <code>hasError()</code>
+     * @throws ArithmeticException   if outside the years 1677 thru 2262 (overflows a <code>long</code>)
+     */
+    public long toEpochNanos() {
+        long epochSecond = toEpochSecond();
+        int nanoOfSecond = getNanoOfSecond();
+        if ( epochSecond < 0 ) { // avoid overflowing on the most negative value
+            return Math.addExact( Math.multiplyExact( epochSecond + 1, 1000000000L ), nanoOfSecond - 1000000000L );
+        }
+        return Math.addExact( Math.multiplyExact( epochSecond, 1000000000L ), nanoOfSecond );
+    }
+
+    private String checkedValue() {
+        if ( hasError() ) {
+            throw new IllegalStateException( "no normalized value: " + this );
+        }
+        return value;
+    }
+
+    private int digitsAt( int at, int count ) {
+        int result = 0;
+        if ( (at + count) < value.length() ) { // the 'Z' is always at the end
+            for ( int end = at + count; at < end; at++ ) {
+                result = (result * 10) + (value.charAt( at ) - '0');
+            }
+        }
+        return result;
+    }
+
     public boolean equals( ISO8601ZtimeStamp them ) {
         return (this == them) || ((them != null)
-                                  && Objects.equals( value, them.value )
-                                  && Objects.equals( error, them.error ));
+                                  && Objects.equals( getValue(), them.getValue() )
+                                  && Objects.equals( getError(), them.getError() ));
     }
 
     @Override
@@ -113,7 +308,66 @@ public class ISO8601ZtimeStamp {
 
     @Override
     public int hashCode() {
-        return Objects.hash( value, error );
+        int hash = this.hash;
+        if ( hash == 0 ) { // same as Objects.hash( getValue(), getError() ), without the varargs array
+            this.hash = hash = (31 * (31 + Objects.hashCode( getValue() ))) + Objects.hashCode( getError() );
+        }
+        return hash;
+    }
+
+    /**
+     * Chronological (precision aware) comparison, consistent with <code>equals</code> (see the class comment).
+     */
+    @Override
+    public int compareTo( ISO8601ZtimeStamp them ) {
+        if ( this == them ) {
+            return 0;
+        }
+        int result = compareInstants( them );
+        if ( (result != 0) || (keySeconds == UNKEYABLE) ) {
+            return result;
+        }
+        return Integer.compare( them.timeLength.ordinal(), timeLength.ordinal() ); // finer first
+    }
+
+    private int compareInstants( ISO8601ZtimeStamp them ) {
+        key();
+        them.key();
+        int result = Long.compare( keySeconds, them.keySeconds );
+        if ( result != 0 ) {
+            return result;
+        }
+        if ( keySeconds != UNKEYABLE ) {
+            return Integer.compare( keyNanos, them.keyNanos );
+        }
+        result = compareNullsFirst( getValue(), them.getValue() );
+        return (result != 0) ? result : compareNullsFirst( getError(), them.getError() );
+    }
+
+    private void key() {
+        if ( !keyed ) {
+            if ( !isKeyable() ) {
+                keySeconds = UNKEYABLE;
+            } else {
+                keySeconds = toEpochSecond();
+                keyNanos = getNanoOfSecond();
+            }
+            keyed = true;
+        }
+    }
+
+    /**
+     * @return true if NOT an error, and the value has a <code>TimeLength</code> and is within the years 1 thru 9999
+     */
+    boolean isKeyable() {
+        return !hasError() && (timeLength != null) && (digitsAt( 0, 4 ) != 0);
+    }
+
+    private static int compareNullsFirst( String s1, String s2 ) {
+        if ( s1 == null ) {
+            return (s2 == null) ? 0 : -1;
+        }
+        return (s2 == null) ? 1 : s1.compareTo( s2 );
     }
 
     @Override
@@ -121,16 +375,88 @@ public class ISO8601ZtimeStamp {
         return hasError() ? ("Error: " + getError()) : getValue();
     }
 
+    /**
+     * Un-pack a timestamp (see <code>PackedZtimeStamp</code>).
+     *
+     * @param packed from <code>toPackedLong()</code> or <code>PackedZtimeStamp.pack(...)</code>
+     */
+    public static ISO8601ZtimeStamp fromPackedLong( long packed ) {
+        return new ISO8601ZtimeStamp( PackedZtimeStamp.toString( packed ), PackedZtimeStamp.getTimeLength( packed ) );
+    }
+
+    /**
+     * @see ZtimeStampClock#system()
+     */
     public static ISO8601ZtimeStamp now() {
-        return fromEpochMillis( System.currentTimeMillis() );
+        return ZtimeStampClock.system().now();
     }
 
     public static ISO8601ZtimeStamp fromEpochMillis( LongSupplier supplier ) {
         return fromEpochMillis( supplier.getAsLong() );
     }
 
+    /**
+     * Note: the form of the value is the same as <code>Instant.toString()</code> (seconds are always included, and the
+     * fractional seconds are in groups of 3 digits, and only if not zero).
+     */
     public static ISO8601ZtimeStamp fromEpochMillis( long millis ) {
-        return new ISO8601ZtimeStamp( Instant.ofEpochMilli( millis ).toString() );
+        long epochSecond = Math.floorDiv( millis, 1000 );
+        if ( !EpochDays.inRange( Math.floorDiv( epochSecond, EpochDays.SECONDS_PER_DAY ) ) ) {
+            return new ISO8601ZtimeStamp( Instant.ofEpochMilli( millis ).toString() ); // outside years 1-9999
+        }
+        return fromEpoch( epochSecond, Math.floorMod( millis, 1000 ) * 1000000 );
+    }
+
+    /**
+     * @throws IllegalArgumentException if outside the years 1 thru 9999
+     * @see #fromEpochMillis(long)
+     */
+    public static ISO8601ZtimeStamp fromEpochMicros( long micros ) {
+        return fromEpochSecond( Math.floorDiv( micros, 1000000 ), Math.floorMod( micros, 1000000 ) * 1000 );
+    }
+
+    /**
+     * Note: all epoch nanos (years 1677 thru 2262) are within the years 1 thru 9999.
+     *
+     * @see #fromEpochMillis(long)
+     */
+    public static ISO8601ZtimeStamp fromEpochNanos( long nanos ) {
+        return fromEpoch( Math.floorDiv( nanos, 1000000000 ), Math.floorMod( nanos, 1000000000 ) );
+    }
+
+    /**
+     * @param nanoOfSecond 0-999999999
+     * @throws IllegalArgumentException if the <code>nanoOfSecond</code> is out of range or outside the years 1 thru 9999
+     * @see #fromEpochMillis(long)
+     */
+    public static ISO8601ZtimeStamp fromEpochSecond( long epochSecond, int nanoOfSecond ) {
+        if ( (nanoOfSecond < 0) || (999999999 < nanoOfSecond) ) {
+            throw new IllegalArgumentException( "expected nanoOfSecond of 0 thru 999999999, but got: " + nanoOfSecond );
+        }
+        if ( !EpochDays.inRange( Math.floorDiv( epochSecond, EpochDays.SECONDS_PER_DAY ) ) ) {
+            throw new IllegalArgumentException( "epochSecond outside the years 1 thru 9999: " + epochSecond );
+        }
+        return fromEpoch( epochSecond, nanoOfSecond );
+    }
+
+    private static ISO8601ZtimeStamp fromEpoch( long epochSecond, int nanoOfSecond ) {
+        TimeLength precision = (nanoOfSecond == 0) ? TimeLength.Second :
+                               ((nanoOfSecond % 1000000) == 0) ? TimeLength.Millis :
+                               ((nanoOfSecond % 1000) == 0) ? TimeLength.Micros : TimeLength.Nanos;
+        return fromEpoch( epochSecond, nanoOfSecond, precision );
+    }
+
+    /**
+     * @param precision to format with (finer parts of the <code>nanoOfSecond</code> are dropped, coarser are zeros)
+     */
+    static ISO8601ZtimeStamp fromEpoch( long epochSecond, int nanoOfSecond, TimeLength precision ) {
+        int civil = EpochDays.toCivil( Math.floorDiv( epochSecond, EpochDays.SECONDS_PER_DAY ) );
+        int secondOfDay = (int)Math.floorMod( epochSecond, EpochDays.SECONDS_PER_DAY );
+        byte[] b = new byte[ZtimeStampFormatter.MAX_LENGTH];
+        int length = ZtimeStampFormatter.format( b, 0, EpochDays.year( civil ), EpochDays.month( civil ),
+                                                 EpochDays.day( civil ), secondOfDay / 3600, (secondOfDay / 60) % 60,
+                                                 secondOfDay % 60, nanoOfSecond, precision );
+        return new ISO8601ZtimeStamp( new String( b, 0, length, StandardCharsets.ISO_8859_1 ), precision );
     }
 
     /**
@@ -140,6 +466,111 @@ public class ISO8601ZtimeStamp {
      * @return instance, possibly with an error (and hence a bad value)!
      */
     public static ISO8601ZtimeStamp fromString( String iso8601ish ) {
+        return ISO8601ZtimeStampParser.perThread().parse( iso8601ish );
+    }
+
+    /**
+     * Attempt to map the (UTF-8/ASCII) ISO-8601(ish) bytes into a UTC/Zulu form, parsing them in place (no decoding
+     * into a <code>String</code> unless they contain non-ASCII bytes).
+     *
+     * @param buf    bytes to parse (null is treated like a null <code>String</code>)
+     * @param offset of the first byte
+     * @param length number of bytes
+     * @return instance, possibly with an error (and hence a bad value)!
+     * @throws IndexOutOfBoundsException if the <code>offset</code> & <code>length</code> are not within the <code>buf</code>
+     */
+    public static ISO8601ZtimeStamp fromBytes( byte[] buf, int offset, int length ) {
+        return ISO8601ZtimeStampParser.perThread().parse( buf, offset, length );
+    }
+
+    /**
+     * Attempt to map the (UTF-8/ASCII) ISO-8601(ish) bytes, from the <code>buffer</code>'s position to its limit, into
+     * a UTC/Zulu form, parsing them in place (see <code>fromBytes</code>).
+     * <p>
+     * Note: the <code>buffer</code>'s position and limit are NOT changed.
+     *
+     * @param buffer bytes to parse (null is treated like a null <code>String</code>)
+     * @return instance, possibly with an error (and hence a bad value)!
+     */
+    public static ISO8601ZtimeStamp fromBuffer( ByteBuffer buffer ) {
+        return ISO8601ZtimeStampParser.perThread().parse( buffer );
+    }
+
+    /**
+     * Validate-only form of <code>fromString</code>: runs all the same checks (including the offset normalization and its
+     * year roll over/under checks), but builds neither an instance nor the normalized value nor (on error) its message.
+     * <p>
+     * Note: ASCII input is checked without allocating; input with non-ASCII characters takes the (allocating) general path.
+     *
+     * @param iso8601ish to check
+     * @return null if valid, otherwise the error's Code
+     */
+    public static ZtimeStampError.Code validate( CharSequence iso8601ish ) {
+        return ISO8601ZtimeStampParser.perThread().validate( iso8601ish );
+    }
+
+    /**
+     * @param iso8601ish to check
+     * @return true if <code>fromString</code> would NOT have an error (see <code>validate</code>)
+     */
+    public static boolean isValid( CharSequence iso8601ish ) {
+        return (validate( iso8601ish ) == null);
+    }
+
+    /**
+     * Normalize a batch of ISO-8601(ish) strings (as if by <code>fromString</code>) without creating an instance per entry.
+     *
+     * @param in     to normalize
+     * @param out    normalized values (by index), null for each entry with an error
+     * @param errors errors (by index), null for each normalized entry (may be null if the errors are not of interest)
+     * @return the number of errors
+     * @throws IllegalArgumentException if <code>out</code> or <code>errors</code> is shorter than <code>in</code>
+     */
+    public static int normalizeAll( CharSequence[] in, String[] out, String[] errors ) {
+        return normalizeAll( in, out, errors, null );
+    }
+
+    /**
+     * Normalize a batch of ISO-8601(ish) strings (as if by <code>fromString</code>) without creating an instance per entry,
+     * and adjust them to the <code>target</code> precision (as if by <code>toHour()</code> ... <code>toNanos()</code>).
+     *
+     * @param in     to normalize
+     * @param out    normalized values (by index), null for each entry with an error
+     * @param errors errors (by index), null for each normalized entry (may be null if the errors are not of interest)
+     * @param target precision, or null to leave as parsed
+     * @return the number of errors
+     * @throws IllegalArgumentException if <code>out</code> or <code>errors</code> is shorter than <code>in</code>
+     */
+    public static int normalizeAll( CharSequence[] in, String[] out, String[] errors, TimeLength target ) {
+        return ISO8601ZtimeStampParser.perThread().normalizeAll( in, out, errors, target );
+    }
+
+    /**
+     * Normalize a batch of ISO-8601(ish) strings (as if by <code>fromString</code>) directly into the packed form
+     * (see <code>PackedZtimeStamp</code>), adjusting them to the <code>target</code> precision.
+     * <p>
+     * Note: as Nanos precision is not packable, a <code>target</code> of Micros (or coarser) avoids those errors.
+     *
+     * @param in     to normalize
+     * @param out    packed values (by index), 0 for each entry with an error
+     * @param errors errors (by index), null for each normalized entry (may be null if the errors are not of interest)
+     * @param target precision, or null to leave as parsed
+     * @return the number of errors
+     * @throws IllegalArgumentException if <code>out</code> or <code>errors</code> is shorter than <code>in</code>
+     */
+    public static int normalizeAll( CharSequence[] in, long[] out, String[] errors, TimeLength target ) {
+        return ISO8601ZtimeStampParser.perThread().normalizeAll( in, out, errors, target );
+    }
+
+    /**
+     * The original (<code>substring</code> / <code>split</code> based) mapping of the ISO-8601(ish) string into a UTC/Zulu form.
+     * <p>
+     * Used by the <code>ISO8601ZtimeStampParser</code> for any input with non-ASCII characters.
+     *
+     * @param iso8601ish to parse
+     * @return instance, possibly with an error (and hence a bad value)!
+     */
+    static ISO8601ZtimeStamp fromStringGeneral( String iso8601ish ) {
         if ( iso8601ish == null ) {
             return new ISO8601ZtimeStamp( null, TO_PARSE_WAS_NULL );
         }
@@ -182,10 +613,10 @@ public class ISO8601ZtimeStamp {
             if ( hasError() ) {
                 return "error: " + error;
             }
-            StringBuilder sb = new StringBuilder();
-            FourDigits.addTo( sb, year ).append( '-' );
-            TwoDigits.addTo( sb, month ).append( '-' );
-            TwoDigits.addTo( sb, day );
+            StringBuilder sb = new StringBuilder( 10 );
+            ZtimeStampFormatter.append( sb, year, 4 ).append( '-' );
+            ZtimeStampFormatter.append( sb, month, 2 ).append( '-' );
+            ZtimeStampFormatter.append( sb, day, 2 );
             return sb.toString();
         }
 
@@ -298,18 +729,21 @@ public class ISO8601ZtimeStamp {
             if ( hasError() ) {
                 return "error: " + error;
             }
-            StringBuilder sb = new StringBuilder();
-            TwoDigits.addTo( sb, hour );
+            StringBuilder sb = new StringBuilder( 19 );
+            ZtimeStampFormatter.append( sb, hour, 2 );
             if ( hasMinutes() ) {
-                TwoDigits.addTo( sb.append( ':' ), minute );
+                ZtimeStampFormatter.append( sb.append( ':' ), minute, 2 );
                 if ( hasSeconds() ) {
-                    TwoDigits.addTo( sb.append( ':' ), second );
+                    ZtimeStampFormatter.append( sb.append( ':' ), second, 2 );
                     if ( nanos != 0 ) {
-                        ThreeDigits.addTo( sb.append( '.' ), millis, micros, nanos );
+                        ZtimeStampFormatter.append( sb.append( '.' ), millis, 3 );
+                        ZtimeStampFormatter.append( sb, micros, 3 );
+                        ZtimeStampFormatter.append( sb, nanos, 3 );
                     } else if ( micros != 0 ) {
-                        ThreeDigits.addTo( sb.append( '.' ), millis, micros );
+                        ZtimeStampFormatter.append( sb.append( '.' ), millis, 3 );
+                        ZtimeStampFormatter.append( sb, micros, 3 );
                     } else if ( millis != 0 ) {
-                        ThreeDigits.addTo( sb.append( '.' ), millis );
+                        ZtimeStampFormatter.append( sb.append( '.' ), millis, 3 );
                     }
                 }
             }
@@ -403,7 +837,10 @@ public class ISO8601ZtimeStamp {
         }
 
         private String extract( String[] timeFields, int index ) {
-            return (index < timeFields.length) ? timeFields[index].trim() : null;
+            if ( index < timeFields.length ) {
+                return timeFields[index].trim();
+            }
+            return (index == 0) ? "" : null; // all colons splits into NO fields, treat as an empty hours field
         }
 
         private int parseTimeField( String field, String what, int max ) {
@@ -547,71 +984,28 @@ public class ISO8601ZtimeStamp {
     }
 
     private static String addOffset( StringBuilder sb, int offsetHours, int offsetMinutes ) {
-        TwoDigits.addTo( sb, offsetHours );
+        ZtimeStampFormatter.append( sb, offsetHours, 2 );
         if ( offsetMinutes != 0 ) {
-            TwoDigits.addTo( sb.append( ':' ), offsetMinutes );
+            ZtimeStampFormatter.append( sb.append( ':' ), offsetMinutes, 2 );
         }
         return sb.toString();
     }
 
-    @SuppressWarnings("UnusedReturnValue")
-    private static class Digits {
-        private final Digits next;
-        private final int valueExtractor;
-
-        public Digits( Digits next ) {
-            this.next = next;
-            valueExtractor = (next == null) ? 1 : (next.valueExtractor * 10);
-        }
-
-        public StringBuilder addTo( StringBuilder sb, int value ) {
-            char digit = '0';
-            for ( ; valueExtractor <= value; value -= valueExtractor ) {
-                digit++;
-            }
-            sb.append( digit );
-            return next.addTo( sb, value );
-        }
-
-        public StringBuilder addTo( StringBuilder sb, int value0, int... moreValues ) {
-            addTo( sb, value0 );
-            for ( int valueN : moreValues ) {
-                addTo( sb, valueN );
-            }
-            return sb;
-        }
-    }
-
-    private static final Digits OneDigit = new Digits( null ) {
-        @Override
-        public StringBuilder addTo( StringBuilder sb, int value ) {
-            return sb.append( (char)('0' + value) );
-        }
-    };
-    private static final Digits TwoDigits = new Digits( OneDigit );
-    private static final Digits ThreeDigits = new Digits( TwoDigits );
-    private static final Digits FourDigits = new Digits( ThreeDigits );
-
-    private ISO8601ZtimeStamp adjustTo( TimeLength desiredTL ) {
-        if ( hasError() ) {
+    ISO8601ZtimeStamp adjustTo( TimeLength desiredTL ) {
+        if ( hasError() || (desiredTL == timeLength) ) { // Happy case (no change)!
             return this;
         }
-        String value = getValue();
-        TimeLength currentTL = TimeLength.from( value );
-        if ( desiredTL == currentTL ) { // Happy case!
-            return this; // No change
-        }
-        if ( currentTL == null ) {
-            return new ISO8601ZtimeStamp( value, "no matching TimeLength" );
+        if ( timeLength == null ) {
+            return new ISO8601ZtimeStamp( value, TIME_LENGTH_NO_MATCH );
         }
-        return new ISO8601ZtimeStamp( desiredTL.adjust( value ) );
+        return new ISO8601ZtimeStamp( desiredTL.adjust( value ), desiredTL );
     }
 
     private static final String EXAMPLE_TIME_STAMP =
             "yyyy-mm-ddT00:00:00.000000000Z"; // 30 long
     // len:  1234567-101234567-20123456789
 
-    enum TimeLength {
+    public enum TimeLength {
         Hour( 13 ),
         Minute( 16 ),
         Second( 19 ),
@@ -619,30 +1013,45 @@ public class ISO8601ZtimeStamp {
         Micros( 26 ),
         Nanos( 29 );
 
+        private static final TimeLength[] BY_Z_LESS_LENGTH = new TimeLength[30]; // from() without cloning values()
+
+        static {
+            for ( TimeLength tl : values() ) {
+                BY_Z_LESS_LENGTH[tl.expectedZlessLength] = tl;
+            }
+        }
+
         private final int expectedZlessLength;
 
         TimeLength( int zLessLength ) {
             expectedZlessLength = zLessLength;
         }
 
+        /**
+         * @return length of the normalized form with this precision, not counting the trailing 'Z'
+         */
+        public int zLessLength() {
+            return expectedZlessLength;
+        }
+
+        /**
+         * Truncate (or zero extend) the normalized value to this precision, building just the one new <code>String</code>.
+         */
         public String adjust( String iso8601z ) {
-            int lessZLength = iso8601z.length() - 1;
-            String newBase = (expectedZlessLength < lessZLength) ?
-                             iso8601z.substring( 0, expectedZlessLength ) :
-                             iso8601z.substring( 0, lessZLength )
-                             + EXAMPLE_TIME_STAMP.substring( lessZLength, expectedZlessLength );
-            return newBase + "Z";
+            int keep = Math.min( iso8601z.length() - 1, expectedZlessLength );
+            char[] chars = new char[expectedZlessLength + 1];
+            iso8601z.getChars( 0, keep, chars, 0 );
+            EXAMPLE_TIME_STAMP.getChars( keep, expectedZlessLength, chars, keep );
+            chars[expectedZlessLength] = 'Z';
+            return new String( chars );
         }
 
         public static TimeLength from( String iso8601z ) {
             if ( (iso8601z != null) && iso8601z.endsWith( "Z" ) ) {
                 int lessZLength = iso8601z.length() - 1;
-                if ( (Hour.expectedZlessLength <= lessZLength) && (iso8601z.charAt( 10 ) == 'T') ) {
-                    for ( TimeLength tl : values() ) {
-                        if ( tl.expectedZlessLength == lessZLength ) {
-                            return tl;
-                        }
-                    }
+                if ( (Hour.expectedZlessLength <= lessZLength) && (lessZLength < BY_Z_LESS_LENGTH.length)
+                     && (iso8601z.charAt( 10 ) == 'T') ) {
+                    return BY_Z_LESS_LENGTH[lessZLength];
                 }
             }
             return null;
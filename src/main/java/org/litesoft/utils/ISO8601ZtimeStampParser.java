@@ -0,0 +1,879 @@
+package org.litesoft.utils;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+
+import org.litesoft.utils.ISO8601ZtimeStamp.TimeLength;
+import org.litesoft.utils.ZtimeStampError.Code;
+import org.litesoft.utils.ZtimeStampError.Field;
+
+import static org.litesoft.utils.ISO8601ZtimeStamp.*;
+
+/**
+ * Single pass (cursor based), reusable, parser behind <code>ISO8601ZtimeStamp.fromString</code>.
+ * <p>
+ * Works directly (via indexes) over the untrimmed, mixed case, <code>CharSequence</code>, so that on the happy path
+ * the only allocations are the resulting <code>ISO8601ZtimeStamp</code> and its value.  It produces exactly the same
+ * values and error texts as the original <code>Date</code> / <code>Time</code> parsing, which means that it mirrors
+ * the quirks of <code>trim</code>, <code>String.split</code> (trailing empty fields are dropped),
+ * and <code>Integer.parseInt</code> (a leading '+' is accepted)!
+ * <p>
+ * Errors are recorded as a <code>Code</code> (plus the offending field, position, and rendering data); the error text
+ * is only built (by <code>ZtimeStampError</code>) when it is asked for.
+ * <p>
+ * Input with ANY non-ASCII characters is handed off to the original parsing, as <code>toUpperCase</code> and
+ * <code>Integer.parseInt</code> have Unicode specific behavior.
+ * <p>
+ * As consecutive timestamps (e.g. in a file) usually share the same date, an instance remembers the last date it
+ * parsed and validated (including the days in its month), and when the next input's (raw) date text is the same, only
+ * the time portion is parsed (the offset normalization, including any day roll over/under, is still fully applied).
+ * <p>
+ * Note: instances are stateful and NOT thread safe (<code>fromString</code> uses one per thread); for incremental
+ * parsing of a stream (e.g. a file), use a dedicated instance per stream (or thread).
+ */
+@SuppressWarnings("unused")
+public final class ISO8601ZtimeStampParser {
+    private static final GregorianMonth[] MONTHS = GregorianMonth.values(); // values() clones on each call!
+    private static final long NOT_AN_INT = Long.MIN_VALUE;
+    private static final int MINUTES_PER_DAY = 24 * 60;
+
+    private static final ThreadLocal<ISO8601ZtimeStampParser> PER_THREAD =
+            ThreadLocal.withInitial( ISO8601ZtimeStampParser::new );
+
+    private final byte[] buffer = new byte[ZtimeStampFormatter.MAX_LENGTH];
+    private final ByteSequence bytes = new ByteSequence();
+    private final boolean canonicalFastPath; // see ZtimeStampCanonical
+
+    private CharSequence text;
+    private int from, to; // trimmed text
+    // Error (errorCode is null when there is no error):
+    private Code errorCode;
+    private Field errorField;
+    private int errorAt, errorStart, errorEnd, errorZeroPad, errorDetail;
+    private ZtimeStampError generalError; // from the original parsing (non-ASCII input)
+    // Structure (indexes into text) found by the scan:
+    private int negAt, negAt2, posAt, posAt2, zAt; // Time portion only!
+    // Date:
+    private int year, month, day, daysInMonth;
+    // Memo of the last parsed (and valid) date, keyed by its raw text (from the trimmed start to the 'T'):
+    private char[] memoDate = new char[16];
+    private int memoLength = -1;
+    private int memoYear, memoMonth, memoDay, memoDaysInMonth;
+    // Time (minute & second are -1 when not present):
+    private int hour, minute, second, millis, micros, nanos;
+    private int offsetHours, offsetMinutes;
+    // Metrics (see ZtimeStampMetrics):
+    private boolean offsetApplied;
+    private int rollOver; // 0 none, 1 day (or month), 2 year
+
+    public ISO8601ZtimeStampParser() {
+        this( ZtimeStampCanonical.ENABLED );
+    }
+
+    /**
+     * @param canonicalFastPath true to take the (SWAR) fast path for canonical shaped input (see
+     *                          <code>ZtimeStampCanonical</code>), regardless of the system property
+     */
+    ISO8601ZtimeStampParser( boolean canonicalFastPath ) {
+        this.canonicalFastPath = canonicalFastPath;
+    }
+
+    static ISO8601ZtimeStampParser perThread() {
+        return PER_THREAD.get();
+    }
+
+    /**
+     * Attempt to map the ISO-8601(ish) text into a UTC/Zulu form.
+     *
+     * @param iso8601ish to parse
+     * @return instance, possibly with an error (and hence a bad value)!
+     */
+    public ISO8601ZtimeStamp parse( CharSequence iso8601ish ) {
+        ISO8601ZtimeStamp result = load( iso8601ish ) ?
+                                   new ISO8601ZtimeStamp( format( null ), precision() ) :
+                                   new ISO8601ZtimeStamp( createError() );
+        text = null; // don't hold on to the caller's text
+        return result;
+    }
+
+    /**
+     * Attempt to map the (UTF-8) ISO-8601(ish) bytes into a UTC/Zulu form, without decoding them into a String.
+     *
+     * @param buf    bytes to parse, null is treated like a null <code>String</code>
+     * @param offset of the first byte
+     * @param length number of bytes
+     * @return instance, possibly with an error (and hence a bad value)!
+     */
+    public ISO8601ZtimeStamp parse( byte[] buf, int offset, int length ) {
+        if ( buf == null ) {
+            return parse( (CharSequence)null );
+        }
+        Objects.checkFromIndexSize( offset, length, buf.length );
+        ISO8601ZtimeStamp result = parse( bytes.set( buf, offset, length ) );
+        bytes.clear();
+        return result;
+    }
+
+    /**
+     * Attempt to map the (UTF-8) ISO-8601(ish) bytes, from the <code>buffer</code>'s position to its limit, into a UTC/Zulu
+     * form, without decoding them into a String (the position & limit are NOT changed).
+     *
+     * @param buffer bytes to parse, null is treated like a null <code>String</code>
+     * @return instance, possibly with an error (and hence a bad value)!
+     */
+    public ISO8601ZtimeStamp parse( ByteBuffer buffer ) {
+        if ( buffer == null ) {
+            return parse( (CharSequence)null );
+        }
+        ISO8601ZtimeStamp result = parse( bytes.set( buffer, buffer.position(), buffer.remaining() ) );
+        bytes.clear();
+        return result;
+    }
+
+    /**
+     * Check the ISO-8601(ish) text without building the value (or an error message).
+     *
+     * @return null if valid, otherwise the error's Code
+     */
+    public Code validate( CharSequence iso8601ish ) {
+        load( iso8601ish );
+        text = null;
+        return errorCode;
+    }
+
+    /**
+     * Normalize each of the <code>in</code> entries into the same index of the <code>out</code> (null on error) and
+     * the <code>errors</code> (null on success, and the <code>errors</code> array itself may be null).
+     *
+     * @param target precision to adjust to (e.g. <code>Millis</code> for a <code>toMillis()</code>), null for as parsed
+     * @return the number of errors
+     */
+    public int normalizeAll( CharSequence[] in, String[] out, String[] errors, TimeLength target ) {
+        checkLengths( in, out.length, errors );
+        int errorCount = 0;
+        for ( int i = 0; i < in.length; i++ ) {
+            String value = null;
+            if ( load( in[i] ) ) {
+                value = format( target );
+            } else {
+                errorCount++;
+            }
+            out[i] = value;
+            if ( errors != null ) {
+                errors[i] = getError();
+            }
+        }
+        text = null;
+        return errorCount;
+    }
+
+    /**
+     * Normalize each of the <code>in</code> entries into the same index of the packed <code>out</code> (0 on error) and
+     * the <code>errors</code> (null on success, and the <code>errors</code> array itself may be null).
+     *
+     * @param target precision to adjust to (e.g. <code>Millis</code> for a <code>toMillis()</code>), null for as parsed
+     * @return the number of errors
+     */
+    public int normalizeAll( CharSequence[] in, long[] out, String[] errors, TimeLength target ) {
+        checkLengths( in, out.length, errors );
+        int errorCount = 0;
+        for ( int i = 0; i < in.length; i++ ) {
+            long value = 0;
+            if ( load( in[i] ) ) {
+                value = pack( target );
+            }
+            if ( value == 0 ) {
+                errorCount++;
+            }
+            out[i] = value;
+            if ( errors != null ) {
+                errors[i] = getError();
+            }
+        }
+        text = null;
+        return errorCount;
+    }
+
+    private static void checkLengths( CharSequence[] in, int outLength, String[] errors ) {
+        if ( (outLength < in.length) || ((errors != null) && (errors.length < in.length)) ) {
+            throw new IllegalArgumentException( "expected out & errors to be at least as long as in (" + in.length + ")" );
+        }
+    }
+
+    /**
+     * Load the fields from the <code>iso8601ish</code> text (recording the outcome into any installed
+     * <code>ZtimeStampMetrics</code>).
+     *
+     * @return true if loaded, otherwise the error is set (see <code>getErrorCode()</code> & <code>createError()</code>)
+     */
+    boolean load( CharSequence iso8601ish ) {
+        ZtimeStampMetrics metrics = ZtimeStampMetrics.installed();
+        if ( metrics == null ) {
+            return loadFields( iso8601ish );
+        }
+        long started = metrics.isRecordingLatency() ? System.nanoTime() : 0;
+        boolean loaded = loadFields( iso8601ish );
+        if ( metrics.isRecordingLatency() ) {
+            metrics.recordLatency( System.nanoTime() - started );
+        }
+        if ( loaded ) {
+            metrics.recordSuccess( offsetApplied, rollOver );
+        } else {
+            metrics.recordError( errorCode );
+        }
+        return loaded;
+    }
+
+    private boolean loadFields( CharSequence iso8601ish ) {
+        text = iso8601ish;
+        reset();
+        if ( text == null ) {
+            return error( Code.TO_PARSE_WAS_NULL, -1 );
+        }
+        int from = 0, to = text.length();
+        while ( (from < to) && (text.charAt( from ) <= ' ') ) { // emulate String.trim()
+            from++;
+        }
+        while ( (from < to) && (text.charAt( to - 1 ) <= ' ') ) {
+            to--;
+        }
+        this.from = from;
+        this.to = to;
+        if ( from == to ) {
+            return error( Code.TO_PARSE_WAS_EMPTY, 0 );
+        }
+        if ( canonicalFastPath && loadCanonical( from, to ) ) {
+            return true;
+        }
+        int tAt = -1;
+        for ( int i = from; i < to; i++ ) {
+            char c = text.charAt( i );
+            if ( c > 127 ) {
+                return loadGeneral();
+            }
+            if ( tAt == -1 ) {
+                if ( (c == 'T') || (c == 't') ) {
+                    tAt = i;
+                }
+            } else if ( c == '-' ) {
+                if ( negAt == -1 ) {
+                    negAt = i;
+                } else if ( negAt2 == -1 ) {
+                    negAt2 = i;
+                }
+            } else if ( c == '+' ) {
+                if ( posAt == -1 ) {
+                    posAt = i;
+                } else if ( posAt2 == -1 ) {
+                    posAt2 = i;
+                }
+            } else if ( ((c == 'Z') || (c == 'z')) && (zAt == -1) ) {
+                zAt = i;
+            }
+        }
+        if ( tAt == -1 ) {
+            return error( Code.TO_PARSE_NO_T, from );
+        }
+        if ( !reuseDate( from, tAt ) ) {
+            parseDate( from, tAt );
+            if ( !hasError() ) {
+                rememberDate( from, tAt );
+            }
+        }
+        if ( !hasError() ) {
+            parseTime( tAt + 1, to );
+        }
+        return !hasError();
+    }
+
+    /**
+     * Fast path (see <code>ZtimeStampCanonical</code>) for the canonical "yyyy-mm-ddThh:mm:ss.sssZ" &
+     * "yyyy-mm-ddThh:mm:ssZ" shapes, with in range fields.
+     *
+     * @return true if loaded, otherwise nothing was changed (and the full parsing is needed)
+     */
+    private boolean loadCanonical( int from, int to ) {
+        int length = to - from;
+        if ( (length != ZtimeStampCanonical.MILLIS_LENGTH) && (length != ZtimeStampCanonical.SECOND_LENGTH) ) {
+            return false;
+        }
+        long date = ZtimeStampCanonical.word( text, from, 8 );
+        long dayTime = ZtimeStampCanonical.word( text, from + 8, 8 );
+        long rest = ZtimeStampCanonical.word( text, from + 16, length - 16 );
+        boolean withMillis = (length == ZtimeStampCanonical.MILLIS_LENGTH);
+        if ( !ZtimeStampCanonical.isDate( date ) || !ZtimeStampCanonical.isDayTime( dayTime )
+             || !(withMillis ? ZtimeStampCanonical.isSecondMillis( rest ) : ZtimeStampCanonical.isSecond( rest )) ) {
+            return false;
+        }
+        int year = (ZtimeStampCanonical.twoDigits( date, 0 ) * 100) + ZtimeStampCanonical.twoDigits( date, 2 );
+        int month = ZtimeStampCanonical.twoDigits( date, 5 );
+        int day = ZtimeStampCanonical.twoDigits( dayTime, 0 );
+        int hour = ZtimeStampCanonical.twoDigits( dayTime, 3 );
+        int minute = ZtimeStampCanonical.twoDigits( dayTime, 6 );
+        int second = ZtimeStampCanonical.twoDigits( rest, withMillis ? 1 : 5 );
+        if ( (year == 0) || (month == 0) || (12 < month) || (day == 0) || (23 < hour) || (59 < minute) || (59 < second) ) {
+            return false;
+        }
+        int daysInMonth = MONTHS[month - 1].getDaysInMonth( year );
+        if ( daysInMonth < day ) {
+            return false;
+        }
+        this.year = year;
+        this.month = month;
+        this.day = day;
+        this.daysInMonth = daysInMonth;
+        this.hour = hour;
+        this.minute = minute;
+        this.second = second;
+        millis = withMillis ? ZtimeStampCanonical.threeDigits( rest, 4 ) : 0;
+        return true;
+    }
+
+    private boolean loadGeneral() {
+        ISO8601ZtimeStamp general = fromStringGeneral( text.toString() );
+        if ( general.hasError() ) {
+            generalError = general.getErrorDetail();
+            errorCode = generalError.getCode();
+            return false;
+        }
+        return loadFields( general.getValue() ); // the normalized form is pure ASCII
+    }
+
+    /**
+     * @return the error Code from the last <code>load</code> (or <code>pack</code>), or null if there was no error
+     */
+    Code getErrorCode() {
+        return errorCode;
+    }
+
+    /**
+     * @return the (rendered) error from the last <code>load</code> (or <code>pack</code>), or null if there was no error
+     */
+    String getError() {
+        return hasError() ? createError().getMessage() : null;
+    }
+
+    /**
+     * @return the error from the last <code>load</code> (or <code>pack</code>), which must have had an error
+     */
+    ZtimeStampError createError() {
+        if ( generalError != null ) {
+            return generalError;
+        }
+        String input = (text == null) ? null : text.toString();
+        return new ZtimeStampError( errorCode, errorField, errorAt, input, from, to,
+                                    errorStart, errorEnd, errorZeroPad, errorDetail );
+    }
+
+    private boolean error( Code code, int at ) {
+        return error( code, null, at, at, at, 0, 0 );
+    }
+
+    /**
+     * Record the error (replacing any prior error).
+     *
+     * @return false (not loaded)
+     */
+    private boolean error( Code code, Field field, int at, int start, int end, int zeroPad, int detail ) {
+        errorCode = code;
+        errorField = field;
+        errorAt = at;
+        errorStart = start;
+        errorEnd = end;
+        errorZeroPad = zeroPad;
+        errorDetail = detail;
+        return false;
+    }
+
+    private void reset() {
+        errorCode = null;
+        generalError = null;
+        negAt = negAt2 = posAt = posAt2 = zAt = -1;
+        year = month = day = 0;
+        hour = millis = micros = nanos = 0;
+        minute = second = -1;
+        offsetHours = offsetMinutes = 0;
+        offsetApplied = false;
+        rollOver = 0;
+    }
+
+    private boolean hasError() {
+        return (errorCode != null);
+    }
+
+    private void parseDate( int start, int end ) {
+        int s0 = start, e0 = start, s1 = start, e1 = start, s2 = start, e2 = start;
+        int fields = 0, nonDroppedFields = 0, fieldStart = start;
+        for ( int i = start; i <= end; i++ ) {
+            if ( (i == end) || (text.charAt( i ) == '-') ) {
+                switch ( fields++ ) {
+                    case 0 -> {
+                        s0 = fieldStart;
+                        e0 = i;
+                    }
+                    case 1 -> {
+                        s1 = fieldStart;
+                        e1 = i;
+                    }
+                    case 2 -> {
+                        s2 = fieldStart;
+                        e2 = i;
+                    }
+                }
+                if ( fieldStart < i ) {
+                    nonDroppedFields = fields; // String.split drops trailing empty fields
+                }
+                fieldStart = i + 1;
+            }
+        }
+        if ( fields == 1 ) {
+            nonDroppedFields = 1; // No separator: String.split returns the whole (even empty) value
+        }
+        if ( nonDroppedFields != 3 ) {
+            error( Code.DATE_NOT_3_FIELDS, null, start, start, end, 0, nonDroppedFields );
+            return;
+        }
+        year = dateField( s0, e0, Field.YEAR, 9999 );
+        month = dateField( s1, e1, Field.MONTH, 12 );
+        if ( !hasError() ) {
+            daysInMonth = lookupDaysInMonth();
+            day = dateField( s2, e2, Field.DAY, daysInMonth );
+        }
+    }
+
+    private int lookupDaysInMonth() {
+        return MONTHS[month - 1].getDaysInMonth( year );
+    }
+
+    /**
+     * @return true if the raw date text is the same as the memo's (and the date fields were loaded from the memo)
+     */
+    private boolean reuseDate( int start, int end ) {
+        int length = end - start;
+        if ( length != memoLength ) {
+            return false;
+        }
+        char[] memo = memoDate;
+        for ( int i = 0; i < length; i++ ) {
+            if ( memo[i] != text.charAt( start + i ) ) {
+                return false;
+            }
+        }
+        year = memoYear;
+        month = memoMonth;
+        day = memoDay;
+        daysInMonth = memoDaysInMonth;
+        return true;
+    }
+
+    private void rememberDate( int start, int end ) {
+        int length = end - start;
+        if ( memoDate.length < length ) {
+            memoDate = new char[length];
+        }
+        for ( int i = 0; i < length; i++ ) {
+            memoDate[i] = text.charAt( start + i );
+        }
+        memoLength = length;
+        memoYear = year;
+        memoMonth = month;
+        memoDay = day;
+        memoDaysInMonth = daysInMonth;
+    }
+
+    private void decrementDay( int offsetsAt ) {
+        rollOver = 1;
+        if ( --day < 1 ) {
+            if ( --month < 1 ) {
+                if ( --year < 1 ) {
+                    error( Code.DATE_YEAR_ROLLED_LT_1, offsetsAt );
+                }
+                month = 12;
+                rollOver = 2;
+            }
+            day = lookupDaysInMonth();
+        }
+    }
+
+    private void incrementDay( int offsetsAt ) {
+        rollOver = 1;
+        if ( daysInMonth < ++day ) { // still the loaded month
+            if ( 12 < ++month ) {
+                if ( 9999 < ++year ) {
+                    error( Code.DATE_YEAR_ROLLED_GT_9999, offsetsAt );
+                }
+                month = 1;
+                rollOver = 2;
+            }
+            day = 1;
+        }
+    }
+
+    private void parseTime( int start, int end ) {
+        int offsetsAt;
+        if ( negAt == -1 ) {
+            offsetsAt = posAt;
+            if ( posAt2 != -1 ) {
+                offsetsAt = multipleOffsetsError( start, end, posAt2 );
+            }
+        } else if ( posAt == -1 ) {
+            offsetsAt = negAt;
+            if ( negAt2 != -1 ) {
+                offsetsAt = multipleOffsetsError( start, end, negAt2 );
+            }
+        } else {
+            offsetsAt = multipleOffsetsError( start, end, Math.max( negAt, posAt ) );
+        }
+        if ( hasError() ) {
+            return;
+        }
+        int fieldsEnd;
+        if ( offsetsAt == -1 ) {
+            if ( zAt == -1 ) {
+                error( Code.TIME_NO_Z_OR_OFFSET, end );
+                return;
+            }
+            fieldsEnd = checkPostZ( end ); // happy case, just a 'Z'
+        } else if ( (zAt != -1) && (zAt < offsetsAt) ) { // offset after 'Z' means we can ignore it
+            fieldsEnd = checkPostZ( offsetsAt );
+        } else {
+            int offsetsEnd = end;
+            if ( zAt != -1 ) { // offset then Z, means Z is meaningless!
+                offsetsEnd = checkPostZ( end ); // ensure nothing after Z
+            }
+            if ( !hasError() ) {
+                parseOffsets( offsetsAt, offsetsEnd );
+            }
+            fieldsEnd = offsetsAt;
+        }
+        if ( !hasError() ) {
+            parseTimeFields( start, fieldsEnd );
+            if ( !hasError() ) {
+                normalize( fieldsEnd );
+            }
+        }
+    }
+
+    private int multipleOffsetsError( int start, int end, int secondOffsetAt ) {
+        error( Code.TIME_MULTIPLE_OFFSETS, null, secondOffsetAt, start, end, 0, 0 );
+        return -1;
+    }
+
+    private int checkPostZ( int end ) {
+        int start = trimStart( zAt + 1, end );
+        end = trimEnd( start, end );
+        if ( start < end ) {
+            error( Code.TIME_STUFF_AFTER_Z, null, start, start, end, 0, 0 );
+        }
+        return zAt;
+    }
+
+    private void parseOffsets( int offsetsAt, int end ) {
+        int offset = ZtimeStampOffsets.lookup( text, offsetsAt, end );
+        if ( offset != ZtimeStampOffsets.MISS ) { // common (and legal) form
+            offsetHours = ZtimeStampOffsets.hours( offset );
+            offsetMinutes = ZtimeStampOffsets.minutes( offset );
+            return;
+        }
+        int colonAt = indexOf( ':', offsetsAt + 1, end );
+        if ( colonAt == -1 ) {
+            offsetHours = offsetField( offsetsAt + 1, end, Field.OFFSET_HOURS, 14 ); // Line Islands
+        } else {
+            int colon2At = indexOf( ':', colonAt + 1, end );
+            if ( colon2At != -1 ) {
+                error( Code.TIME_TOO_MANY_OFFSET_COLONS, null, colon2At, offsetsAt, end, 0, 0 );
+                return;
+            }
+            offsetMinutes = validateOffsetMinutes( offsetField( colonAt + 1, end, Field.OFFSET_MINUTES, 45 ), colonAt + 1 );
+            offsetHours = offsetField( offsetsAt + 1, colonAt, Field.OFFSET_HOURS, 14 );
+        }
+        if ( text.charAt( offsetsAt ) == '-' ) {
+            offsetHours = -offsetHours;
+            offsetMinutes = -offsetMinutes;
+        }
+    }
+
+    private int validateOffsetMinutes( int minOffset, int at ) {
+        return switch ( minOffset ) {
+            case 0, 15, 30, 45 -> minOffset;
+            default -> {
+                error( Code.TIME_MINUTE_OFFSET_NOT_QUARTER_HOUR, Field.OFFSET_MINUTES, at, at, at, 0, minOffset );
+                yield -1;
+            }
+        };
+    }
+
+    private void parseTimeFields( int start, int end ) {
+        int s0 = start, e0 = start, s1 = start, e1 = start, s2 = start, e2 = start;
+        int fields = 0, nonDroppedFields = 0, fieldStart = start;
+        for ( int i = start; i <= end; i++ ) {
+            if ( (i == end) || (text.charAt( i ) == ':') ) {
+                switch ( fields++ ) {
+                    case 0 -> {
+                        s0 = fieldStart;
+                        e0 = i;
+                    }
+                    case 1 -> {
+                        s1 = fieldStart;
+                        e1 = i;
+                    }
+                    case 2 -> {
+                        s2 = fieldStart;
+                        e2 = i;
+                    }
+                }
+                if ( fieldStart < i ) {
+                    nonDroppedFields = fields; // String.split drops trailing empty fields
+                }
+                fieldStart = i + 1;
+            }
+        }
+        if ( fields == 1 ) {
+            nonDroppedFields = 1; // No separator: String.split returns the whole (even empty) value
+        }
+        if ( nonDroppedFields > 3 ) {
+            error( Code.TIME_GT_3_FIELDS, null, start, start, end, 0, nonDroppedFields );
+            return;
+        }
+        hour = timeField( s0, e0, Field.HOURS, 23 ); // Note: all colons (no fields) is treated as an empty hours field
+        if ( nonDroppedFields > 1 ) {
+            minute = timeField( s1, e1, Field.MINUTES, 59 );
+            if ( nonDroppedFields > 2 ) {
+                s2 = trimStart( s2, e2 );
+                e2 = trimEnd( s2, e2 );
+                int decimalAt = indexOf( '.', s2, e2 );
+                if ( decimalAt != -1 ) {
+                    parseFractionalSecs( decimalAt + 1, e2 );
+                    e2 = decimalAt;
+                }
+                second = timeField( s2, e2, Field.SECONDS, 59 );
+            }
+        }
+    }
+
+    private void parseFractionalSecs( int start, int end ) {
+        if ( (end - start) > 9 ) {
+            error( Code.TIME_FRACTIONAL_SECONDS_TOO_LONG, start );
+        } else {
+            millis = parseFraction( start, end, 0, Field.MILLIS );
+            micros = parseFraction( start, end, 3, Field.MICROS );
+            nanos = parseFraction( start, end, 6, Field.NANOS );
+        }
+    }
+
+    private int parseFraction( int fractionStart, int fractionEnd, int offset, Field field ) {
+        int start = fractionStart + offset;
+        if ( fractionEnd <= start ) {
+            return 0;
+        }
+        int end = Math.min( start + 3, fractionEnd );
+        return Math.max( 0, parseValue( start, end, 3 - (end - start), field, 0, 999, true ) );
+    }
+
+    private void normalize( int offsetsAt ) {
+        if ( (offsetHours == 0) && (offsetMinutes == 0) ) {
+            return;
+        }
+        offsetApplied = true;
+        if ( (offsetMinutes != 0) && (minute == -1) ) {
+            error( Code.TIME_NO_MINUTES_TO_ADJUST, null, offsetsAt, offsetsAt, offsetsAt, 0, offsetMinutes );
+            return;
+        }
+        // Offsets are at most 14:45, so the day shifts by at most one:
+        int minuteOfDay = (hour * 60) + Math.max( 0, minute ) + (offsetHours * 60) + offsetMinutes;
+        int dayShift = (minuteOfDay < 0) ? -1 : ((minuteOfDay < MINUTES_PER_DAY) ? 0 : 1);
+        minuteOfDay -= dayShift * MINUTES_PER_DAY;
+        hour = minuteOfDay / 60;
+        if ( minute != -1 ) {
+            minute = minuteOfDay - (hour * 60);
+        }
+        if ( dayShift < 0 ) {
+            decrementDay( offsetsAt ); // may set Error
+        } else if ( dayShift > 0 ) {
+            incrementDay( offsetsAt ); // may set Error
+        }
+    }
+
+    private int dateField( int start, int end, Field field, int max ) {
+        return parseValue( start, end, 0, field, 1, max, !hasError() ); // Date keeps its first error
+    }
+
+    private int timeField( int start, int end, Field field, int max ) {
+        return parseValue( start, end, 0, field, 0, max, true );
+    }
+
+    private int offsetField( int start, int end, Field field, int max ) {
+        return parseValue( start, end, 0, field, 0, max, true );
+    }
+
+    /**
+     * Emulates <code>ISO8601ZtimeStamp.parseValue</code> over the <code>text</code> from <code>start</code> to
+     * <code>end</code> followed by <code>zeroPad</code> '0's.
+     *
+     * @return the value OR -1 if there was a problem
+     */
+    private int parseValue( int start, int end, int zeroPad, Field field, int min, int max, boolean recordError ) {
+        long value = parseInt( start, end, zeroPad );
+        Code problem;
+        int limit = 0;
+        if ( value == NOT_AN_INT ) {
+            problem = Code.INT_PARSE_ERROR;
+        } else if ( value < min ) {
+            problem = Code.INT_LT_MIN;
+            limit = min;
+        } else if ( value > max ) {
+            problem = Code.INT_GT_MAX;
+            limit = max;
+        } else {
+            return (int)value;
+        }
+        if ( recordError ) {
+            error( problem, field, trimStart( start, end ), start, end, zeroPad, limit );
+        }
+        return -1;
+    }
+
+    /**
+     * Emulates <code>Integer.parseInt</code> of the trimmed <code>text</code> from <code>start</code> to
+     * <code>end</code> followed by <code>zeroPad</code> '0's (ASCII only).
+     *
+     * @return the value OR NOT_AN_INT
+     */
+    private long parseInt( int start, int end, int zeroPad ) {
+        start = trimStart( start, end );
+        if ( zeroPad == 0 ) {
+            end = trimEnd( start, end );
+        }
+        if ( (start == end) && (zeroPad == 0) ) {
+            return NOT_AN_INT;
+        }
+        boolean negative = false;
+        if ( start < end ) {
+            char c = text.charAt( start );
+            if ( (c == '-') || (c == '+') ) {
+                if ( ((start + 1) == end) && (zeroPad == 0) ) {
+                    return NOT_AN_INT; // sign only
+                }
+                negative = (c == '-');
+                start++;
+            }
+        }
+        long value = 0;
+        for ( int i = start; i < end; i++ ) {
+            char c = text.charAt( i );
+            if ( (c < '0') || ('9' < c) ) {
+                return NOT_AN_INT;
+            }
+            value = (value * 10) + (c - '0');
+            if ( value > (Integer.MAX_VALUE + 1L) ) {
+                return NOT_AN_INT;
+            }
+        }
+        for ( int i = 0; i < zeroPad; i++ ) {
+            value *= 10;
+        }
+        value = negative ? -value : value;
+        return ((Integer.MIN_VALUE <= value) && (value <= Integer.MAX_VALUE)) ? value : NOT_AN_INT;
+    }
+
+    private int indexOf( char c, int start, int end ) {
+        for ( int i = start; i < end; i++ ) {
+            if ( text.charAt( i ) == c ) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private int trimStart( int start, int end ) {
+        while ( (start < end) && (text.charAt( start ) <= ' ') ) {
+            start++;
+        }
+        return start;
+    }
+
+    private int trimEnd( int start, int end ) {
+        while ( (start < end) && (text.charAt( end - 1 ) <= ' ') ) {
+            end--;
+        }
+        return end;
+    }
+
+    private TimeLength precision() {
+        if ( minute == -1 ) {
+            return TimeLength.Hour;
+        }
+        if ( second == -1 ) {
+            return TimeLength.Minute;
+        }
+        if ( nanos != 0 ) {
+            return TimeLength.Nanos;
+        }
+        if ( micros != 0 ) {
+            return TimeLength.Micros;
+        }
+        return (millis != 0) ? TimeLength.Millis : TimeLength.Second;
+    }
+
+    /**
+     * @param target precision to adjust to, null for as parsed
+     * @return the packed form, OR 0 (with the error set) if the precision is Nanos
+     */
+    private long pack( TimeLength target ) {
+        TimeLength precision = (target != null) ? target : precision();
+        int minute = Math.max( 0, this.minute );
+        int second = Math.max( 0, this.second );
+        int micros = (millis * 1000) + this.micros;
+        switch ( precision ) {
+            case Nanos -> {
+                error( Code.NANOS_NOT_PACKABLE, from );
+                return 0;
+            }
+            case Hour -> {
+                minute = 0;
+                second = 0;
+                micros = 0;
+            }
+            case Minute -> {
+                second = 0;
+                micros = 0;
+            }
+            case Second -> micros = 0;
+            case Millis -> micros = millis * 1000;
+            default -> { // Micros: as is
+            }
+        }
+        return PackedZtimeStamp.packUnchecked( year, month, day, hour, minute, second, micros, precision );
+    }
+
+    /**
+     * @return the millis since 1970-01-01T00Z of the loaded fields (finer precision is dropped)
+     */
+    long toEpochMillis() {
+        long epochDay = EpochDays.fromCivil( year, month, day );
+        return (epochDay * EpochDays.SECONDS_PER_DAY * 1000) + (hour * 3600000L) + (Math.max( 0, minute ) * 60000L)
+               + (Math.max( 0, second ) * 1000L) + millis;
+    }
+
+    /**
+     * @param target precision to adjust to, null for as parsed
+     */
+    private String format( TimeLength target ) {
+        int length = formatTo( buffer, 0, target );
+        return new String( buffer, 0, length, StandardCharsets.ISO_8859_1 );
+    }
+
+    /**
+     * Write the (ASCII) normalized form of the loaded fields into <code>b</code>, which must have room for
+     * <code>ZtimeStampFormatter.MAX_LENGTH</code> bytes.
+     *
+     * @param target precision to adjust to, null for as parsed
+     * @return the offset just past the written 'Z'
+     */
+    int formatTo( byte[] b, int at, TimeLength target ) {
+        return ZtimeStampFormatter.format( b, at, year, month, day, hour, Math.max( 0, minute ), Math.max( 0, second ),
+                                           (millis * 1000000) + (micros * 1000) + nanos,
+                                           (target != null) ? target : precision() );
+    }
+}
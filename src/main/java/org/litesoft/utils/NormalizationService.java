@@ -0,0 +1,345 @@
+package org.litesoft.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.litesoft.utils.ISO8601ZtimeStamp.TimeLength;
+
+/**
+ * In-process, shared, batch normalization service (as if by <code>ISO8601ZtimeStamp.normalizeAll</code>) for many
+ * request threads.
+ * <p>
+ * Batches are queued on a bounded queue; when it is full a <code>submit</code> either fails (<code>REJECT</code>: the
+ * returned future completes with a <code>RejectedExecutionException</code>) or waits for room (<code>BLOCK</code>).
+ * A fixed number of "drainers" (running on the executor, each with its own parser) take the queued batches; a drainer
+ * takes all the batches that are waiting (up to <code>MAX_COALESCED</code>) at once, so a stream of small batches
+ * costs one hand-off per group rather than per batch.
+ * <p>
+ * <code>close()</code> stops accepting batches, and waits until the already queued ones are done.  If the drainers
+ * are stopped out from under the service (e.g. their executor is <code>shutdownNow()</code>), the service closes
+ * itself: the batches the drainers had taken, and those still queued, fail with a
+ * <code>RejectedExecutionException</code> (<code>ABANDONED</code>) rather than never completing.
+ */
+@SuppressWarnings("unused")
+public final class NormalizationService implements AutoCloseable {
+    public enum Overflow {REJECT, BLOCK}
+
+    public static final String CLOSED = "service is closed";
+    public static final String QUEUE_FULL = "queue is full";
+    public static final String ABANDONED = "drainers stopped";
+
+    static final int MAX_COALESCED = 64;
+
+    private static final Request STOP = new Request( new CharSequence[0] );
+
+    private final TimeLength target;
+    private final Overflow overflow;
+    private final BlockingQueue<Request> queue;
+    private final ExecutorService ownedExecutor; // null if the executor was supplied
+    private final List<CompletableFuture<Void>> drainers = new ArrayList<>();
+    private final AtomicInteger liveDrainers = new AtomicInteger();
+    private final ReadWriteLock closeLock = new ReentrantReadWriteLock();
+    private boolean closed; // guarded by the closeLock
+
+    /**
+     * @param executor      to run the drainers on (must be able to run <code>parallelism</code> long-lived tasks at once)
+     * @param parallelism   number of drainers (at least 1)
+     * @param queueCapacity maximum number of queued (not yet taken) batches (at least 1)
+     * @param overflow      what a <code>submit</code> does when the queue is full
+     * @param target        precision to adjust to (e.g. <code>Millis</code> for a <code>toMillis()</code>), null for as parsed
+     * @throws IllegalArgumentException if the <code>executor</code> or <code>overflow</code> is null, or
+     *                                  <code>parallelism</code> or <code>queueCapacity</code> is less than 1
+     */
+    public NormalizationService( Executor executor, int parallelism, int queueCapacity, Overflow overflow, TimeLength target ) {
+        this( executor, null, parallelism, queueCapacity, overflow, target );
+    }
+
+    private NormalizationService( Executor executor, ExecutorService ownedExecutor, int parallelism, int queueCapacity,
+                                  Overflow overflow, TimeLength target ) {
+        if ( executor == null ) {
+            throw new IllegalArgumentException( "no executor" );
+        }
+        if ( overflow == null ) {
+            throw new IllegalArgumentException( "no overflow" );
+        }
+        if ( parallelism < 1 ) {
+            throw new IllegalArgumentException( "expected parallelism of at least 1, but got: " + parallelism );
+        }
+        if ( queueCapacity < 1 ) {
+            throw new IllegalArgumentException( "expected queueCapacity of at least 1, but got: " + queueCapacity );
+        }
+        this.target = target;
+        this.overflow = overflow;
+        this.ownedExecutor = ownedExecutor;
+        queue = new ArrayBlockingQueue<>( queueCapacity );
+        liveDrainers.set( parallelism );
+        for ( int i = 0; i < parallelism; i++ ) {
+            drainers.add( CompletableFuture.runAsync( this::drain, executor ) );
+        }
+    }
+
+    /**
+     * Service with a drainer per available processor, on (its own) daemon threads.
+     *
+     * @see #NormalizationService(Executor, int, int, Overflow, TimeLength)
+     */
+    public static NormalizationService create( int queueCapacity, Overflow overflow, TimeLength target ) {
+        int parallelism = Runtime.getRuntime().availableProcessors();
+        ExecutorService executor = Executors.newFixedThreadPool( parallelism, r -> {
+            Thread thread = new Thread( r, "NormalizationService-drainer" );
+            thread.setDaemon( true );
+            return thread;
+        } );
+        return new NormalizationService( executor, executor, parallelism, queueCapacity, overflow, target );
+    }
+
+    public TimeLength getTarget() {
+        return target;
+    }
+
+    public Overflow getOverflow() {
+        return overflow;
+    }
+
+    /**
+     * @return the number of queued (not yet taken) batches
+     */
+    public int getQueued() {
+        return queue.size();
+    }
+
+    /**
+     * Queue the <code>batch</code> for normalization (the array must not be changed until the result is complete).
+     *
+     * @param batch to normalize
+     * @return the future result; failed with a <code>RejectedExecutionException</code> if the queue is full (and
+     * <code>REJECT</code>) or the service is closed (or the waiting thread was interrupted)
+     * @throws IllegalArgumentException if the <code>batch</code> is null
+     */
+    public CompletableFuture<Result> submit( CharSequence[] batch ) {
+        if ( batch == null ) {
+            throw new IllegalArgumentException( "no batch" );
+        }
+        Request request = new Request( batch );
+        closeLock.readLock().lock();
+        try {
+            if ( closed ) {
+                return rejected( request, CLOSED );
+            }
+            if ( overflow == Overflow.REJECT ) {
+                if ( !queue.offer( request ) ) {
+                    return rejected( request, QUEUE_FULL );
+                }
+            } else {
+                queue.put( request );
+            }
+        }
+        catch ( InterruptedException e ) {
+            Thread.currentThread().interrupt();
+            request.result.completeExceptionally( new RejectedExecutionException( "interrupted while waiting for room", e ) );
+        }
+        finally {
+            closeLock.readLock().unlock();
+        }
+        return request.result;
+    }
+
+    /**
+     * Stop accepting batches, and wait until all the queued batches are done (and any owned executor is shut down);
+     * any batches left over (because the drainers were stopped) are failed.
+     */
+    @Override
+    public void close() {
+        closeLock.writeLock().lock();
+        try {
+            closed = true; // (again is harmless: the drainers, or a STOP each, are already gone)
+        }
+        finally {
+            closeLock.writeLock().unlock();
+        }
+        for ( int i = 0; i < drainers.size(); i++ ) {
+            putStop(); // behind all the queued batches
+        }
+        CompletableFuture.allOf( drainers.toArray( new CompletableFuture<?>[0] ) ).exceptionally( t -> null ).join();
+        failQueued( CLOSED );
+        if ( ownedExecutor != null ) {
+            ownedExecutor.shutdown();
+        }
+    }
+
+    /**
+     * Queue a STOP, unless (while waiting for room) the drainers are all gone.
+     */
+    private void putStop() {
+        boolean interrupted = false;
+        while ( liveDrainers.get() > 0 ) {
+            try {
+                if ( queue.offer( STOP, 10, TimeUnit.MILLISECONDS ) ) {
+                    break;
+                }
+            }
+            catch ( InterruptedException e ) {
+                interrupted = true;
+            }
+        }
+        if ( interrupted ) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static CompletableFuture<Result> rejected( Request request, String why ) {
+        request.result.completeExceptionally( new RejectedExecutionException( why ) );
+        return request.result;
+    }
+
+    private void drain() {
+        ISO8601ZtimeStampParser parser = new ISO8601ZtimeStampParser();
+        List<Request> taken = new ArrayList<>( MAX_COALESCED );
+        try {
+            boolean stop = false;
+            while ( !stop ) {
+                try {
+                    taken.add( queue.take() );
+                }
+                catch ( InterruptedException e ) {
+                    return; // executor shut down under us
+                }
+                queue.drainTo( taken, MAX_COALESCED - 1 );
+                for ( Request request : taken ) {
+                    if ( request == STOP ) {
+                        stop = true; // finish the rest of the taken batches (others' STOPs are put back)
+                    } else {
+                        request.process( parser, target );
+                    }
+                }
+                for ( int extraStops = countStops( taken ) - 1; extraStops > 0; extraStops-- ) {
+                    putStop(); // each drainer stops on exactly one
+                }
+                taken.clear();
+            }
+        }
+        finally {
+            for ( Request request : taken ) {
+                rejected( request, ABANDONED ); // no-op for the already completed
+            }
+            if ( liveDrainers.decrementAndGet() == 0 ) {
+                abandonQueued();
+            }
+        }
+    }
+
+    /**
+     * The last drainer is gone: close (so nothing more is queued), and fail whatever is queued.  Failing the queued
+     * batches while waiting for the write lock frees room for any <code>BLOCK</code>ed submitters (which hold the
+     * read lock).
+     */
+    private void abandonQueued() {
+        boolean interrupted = Thread.interrupted();
+        Lock lock = closeLock.writeLock();
+        while ( true ) {
+            failQueued( ABANDONED );
+            try {
+                if ( lock.tryLock( 10, TimeUnit.MILLISECONDS ) ) {
+                    break;
+                }
+            }
+            catch ( InterruptedException e ) {
+                interrupted = true;
+            }
+        }
+        try {
+            closed = true;
+        }
+        finally {
+            lock.unlock();
+        }
+        failQueued( ABANDONED );
+        if ( interrupted ) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void failQueued( String why ) {
+        for ( Request request; (request = queue.poll()) != null; ) {
+            if ( request != STOP ) {
+                rejected( request, why );
+            }
+        }
+    }
+
+    private static int countStops( List<Request> taken ) {
+        int count = 0;
+        for ( Request request : taken ) {
+            if ( request == STOP ) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Normalized batch (by index, as <code>ISO8601ZtimeStamp.normalizeAll</code>).
+     */
+    public static final class Result {
+        private final String[] values;
+        private final String[] errors;
+        private final int errorCount;
+
+        private Result( String[] values, String[] errors, int errorCount ) {
+            this.values = values;
+            this.errors = errors;
+            this.errorCount = errorCount;
+        }
+
+        /**
+         * @return the normalized values, null for each entry with an error
+         */
+        public String[] getValues() {
+            return values;
+        }
+
+        /**
+         * @return the errors, null for each normalized entry
+         */
+        public String[] getErrors() {
+            return errors;
+        }
+
+        public int getErrorCount() {
+            return errorCount;
+        }
+    }
+
+    private static final class Request {
+        private final CharSequence[] batch;
+        private final CompletableFuture<Result> result = new CompletableFuture<>();
+
+        private Request( CharSequence[] batch ) {
+            this.batch = batch;
+        }
+
+        private void process( ISO8601ZtimeStampParser parser, TimeLength target ) {
+            try {
+                String[] values = new String[batch.length];
+                String[] errors = new String[batch.length];
+                int errorCount = parser.normalizeAll( batch, values, errors, target );
+                result.complete( new Result( values, errors, errorCount ) );
+            }
+            catch ( RuntimeException e ) {
+                result.completeExceptionally( e );
+            }
+        }
+    }
+}
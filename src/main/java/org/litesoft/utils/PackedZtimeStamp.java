@@ -0,0 +1,168 @@
+package org.litesoft.utils;
+
+import org.litesoft.utils.ISO8601ZtimeStamp.TimeLength;
+
+/**
+ * Packs a normalized (Zulu) timestamp, AND its <code>TimeLength</code> precision, into a single (non-negative) <code>long</code>,
+ * so that normalized timestamps can live in <code>long[]</code> columns and be compared, sorted, and bucketed without
+ * re-parsing their <code>String</code> form.
+ * <p>
+ * Layout (high to low bits): year(14), month(4), day(5), hour(5), minute(6), second(6), micros(20), and precision(3).
+ * <p>
+ * Ordering of the packed values is chronological, and (for the same precision) identical to the lexical ordering of the
+ * <code>String</code> form.  For the same instant, finer precisions order first (again matching the lexical ordering,
+ * e.g. "...T13:00Z" before "...T13Z").
+ * <p>
+ * Note: the fractional seconds are limited to micro-seconds, as nanosecond resolution across the 1-9999 year range
+ * needs more than 64 bits; hence <code>TimeLength.Nanos</code> values are NOT packable!
+ */
+@SuppressWarnings("unused")
+public final class PackedZtimeStamp {
+    public static final String NANOS_NOT_PACKABLE = "Nanos precision is not packable";
+
+    private static final int PRECISION_BITS = 3;
+    private static final int MICROS_SHIFT = PRECISION_BITS;
+    private static final int SECOND_SHIFT = MICROS_SHIFT + 20;
+    private static final int MINUTE_SHIFT = SECOND_SHIFT + 6;
+    private static final int HOUR_SHIFT = MINUTE_SHIFT + 6;
+    private static final int DAY_SHIFT = HOUR_SHIFT + 5;
+    private static final int MONTH_SHIFT = DAY_SHIFT + 5;
+    private static final int YEAR_SHIFT = MONTH_SHIFT + 4; // 14 bits for the year, leaving the sign bit unused
+
+    private static final TimeLength[] TIME_LENGTHS = TimeLength.values();
+    private static final int FINEST_CODE = TimeLength.Nanos.ordinal(); // precision code is inverted, so finer orders first
+
+    private PackedZtimeStamp() {
+    }
+
+    /**
+     * Pack the fields of a normalized (Zulu) timestamp.
+     *
+     * @param micros    fraction of the second (0-999999)
+     * @param precision of the timestamp, fields finer than the <code>precision</code> must be zero
+     * @throws IllegalArgumentException if any field is out of range, or the <code>precision</code> is null or Nanos
+     */
+    public static long pack( int year, int month, int day, int hour, int minute, int second, int micros, TimeLength precision ) {
+        if ( (precision == null) || (precision == TimeLength.Nanos) ) {
+            throw new IllegalArgumentException( "expected precision of Hour thru Micros, but got: " + precision );
+        }
+        check( "year", year, 1, 9999 );
+        check( "day", day, 1, GregorianMonth.from( month ).getDaysInMonth( year ) );
+        check( "hour", hour, 0, 23 );
+        check( "minute", minute, 0, (precision == TimeLength.Hour) ? 0 : 59 );
+        check( "second", second, 0, (precision.ordinal() < TimeLength.Second.ordinal()) ? 0 : 59 );
+        check( "micros", micros, 0, (precision.ordinal() < TimeLength.Millis.ordinal()) ? 0 : 999999 );
+        if ( (precision == TimeLength.Millis) && ((micros % 1000) != 0) ) {
+            throw new IllegalArgumentException( "expected micros to be whole millis, but got: " + micros );
+        }
+        return packUnchecked( year, month, day, hour, minute, second, micros, precision );
+    }
+
+    static long packUnchecked( int year, int month, int day, int hour, int minute, int second, int micros, TimeLength precision ) {
+        return ((long)year << YEAR_SHIFT)
+               | ((long)month << MONTH_SHIFT)
+               | ((long)day << DAY_SHIFT)
+               | ((long)hour << HOUR_SHIFT)
+               | ((long)minute << MINUTE_SHIFT)
+               | ((long)second << SECOND_SHIFT)
+               | ((long)micros << MICROS_SHIFT)
+               | (FINEST_CODE - precision.ordinal());
+    }
+
+    public static int getYear( long packed ) {
+        return (int)(packed >>> YEAR_SHIFT);
+    }
+
+    public static int getMonth( long packed ) {
+        return field( packed, MONTH_SHIFT, 4 );
+    }
+
+    public static int getDay( long packed ) {
+        return field( packed, DAY_SHIFT, 5 );
+    }
+
+    public static int getHour( long packed ) {
+        return field( packed, HOUR_SHIFT, 5 );
+    }
+
+    public static int getMinute( long packed ) {
+        return field( packed, MINUTE_SHIFT, 6 );
+    }
+
+    public static int getSecond( long packed ) {
+        return field( packed, SECOND_SHIFT, 6 );
+    }
+
+    public static int getMicros( long packed ) {
+        return field( packed, MICROS_SHIFT, 20 );
+    }
+
+    public static TimeLength getTimeLength( long packed ) {
+        return TIME_LENGTHS[FINEST_CODE - field( packed, 0, PRECISION_BITS )];
+    }
+
+    /**
+     * Adjust the precision of a packed timestamp (the packed form of <code>ISO8601ZtimeStamp.toHour()</code> ...
+     * <code>toMicros()</code>), i.e. the fields finer than the <code>precision</code> are zeroed.
+     *
+     * @throws IllegalArgumentException if the <code>precision</code> is null or Nanos
+     */
+    public static long adjust( long packed, TimeLength precision ) {
+        if ( (precision == null) || (precision == TimeLength.Nanos) ) {
+            throw new IllegalArgumentException( "expected precision of Hour thru Micros, but got: " + precision );
+        }
+        long keepMask = switch ( precision ) {
+            case Hour -> -1L << HOUR_SHIFT;
+            case Minute -> -1L << MINUTE_SHIFT;
+            case Second -> -1L << SECOND_SHIFT;
+            default -> -1L << MICROS_SHIFT; // Millis & Micros
+        };
+        long adjusted = packed & keepMask;
+        if ( precision == TimeLength.Millis ) {
+            int micros = getMicros( packed );
+            adjusted = (adjusted & ~(((1L << 20) - 1) << MICROS_SHIFT)) | ((long)(micros - (micros % 1000)) << MICROS_SHIFT);
+        }
+        return adjusted | (FINEST_CODE - precision.ordinal());
+    }
+
+    /**
+     * @return the normalized (Zulu) <code>String</code> form, identical to <code>ISO8601ZtimeStamp.getValue()</code>
+     */
+    public static String toString( long packed ) {
+        char[] chars = new char[getTimeLength( packed ).zLessLength() + 1];
+        ZtimeStampFormatter.formatPacked( packed, chars, 0 );
+        return new String( chars );
+    }
+
+    /**
+     * @return the micros since 1970-01-01T00Z (negative before)
+     */
+    static long toEpochMicros( long packed ) {
+        long epochDay = EpochDays.fromCivil( getYear( packed ), getMonth( packed ), getDay( packed ) );
+        long secondOfDay = (getHour( packed ) * 3600L) + (getMinute( packed ) * 60L) + getSecond( packed );
+        return (((epochDay * EpochDays.SECONDS_PER_DAY) + secondOfDay) * 1000000) + getMicros( packed );
+    }
+
+    /**
+     * @param epochMicros micros since 1970-01-01T00Z, which must be within the years 1 thru 9999
+     * @param precision   Hour thru Micros, which must match the <code>epochMicros</code> (finer fields are NOT zeroed)
+     */
+    static long fromEpochMicros( long epochMicros, TimeLength precision ) {
+        long epochSecond = Math.floorDiv( epochMicros, 1000000 );
+        int civil = EpochDays.toCivil( Math.floorDiv( epochSecond, EpochDays.SECONDS_PER_DAY ) );
+        int secondOfDay = (int)Math.floorMod( epochSecond, EpochDays.SECONDS_PER_DAY );
+        return packUnchecked( EpochDays.year( civil ), EpochDays.month( civil ), EpochDays.day( civil ),
+                              secondOfDay / 3600, (secondOfDay / 60) % 60, secondOfDay % 60,
+                              Math.floorMod( epochMicros, 1000000 ), precision );
+    }
+
+    private static int field( long packed, int shift, int bits ) {
+        return (int)(packed >>> shift) & ((1 << bits) - 1);
+    }
+
+    private static void check( String what, int value, int min, int max ) {
+        if ( (value < min) || (max < value) ) {
+            throw new IllegalArgumentException( "expected " + what + " value of " + min + " thru " + max + ", but got: " + value );
+        }
+    }
+}
@@ -0,0 +1,314 @@
+package org.litesoft.utils;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.function.LongConsumer;
+
+import org.litesoft.utils.ISO8601ZtimeStamp.TimeLength;
+
+/**
+ * Immutable, block compressed, sequence of packed timestamps (see <code>PackedZtimeStamp</code>), for archiving long,
+ * nearly monotonic, runs (e.g. a sorted <code>ZtimeStampColumn</code>, or log/metric streams).
+ * <p>
+ * Each timestamp is mapped to a linear key: its micros since 1970-01-01T00Z, shifted over its 3 bit precision code.
+ * The keys are cut into blocks of <code>BLOCK_SIZE</code>; a block holds its first key (the base) and the frame of
+ * reference (the minimum) of its deltas, followed by the deltas less that minimum, bit packed at the width of the
+ * largest.  So a block of evenly spaced timestamps takes 17 bytes, and a block of millisecond events arriving about a
+ * second apart about 2.5 bytes per row; out of order rows only cost wider deltas.
+ * <p>
+ * A block index (of byte offsets) gives random access at block granularity (<code>getPacked</code> decodes at most one
+ * block); <code>forEachPacked</code> & <code>forEach</code> stream decode (block by block) straight into packed
+ * <code>long</code>s or <code>ISO8601ZtimeStamp</code>s.
+ * <p>
+ * Note: as with <code>PackedZtimeStamp</code>, Nanos precision is not supported.
+ */
+@SuppressWarnings("unused")
+public final class ZtimeStampBlocks {
+    public static final int BLOCK_SIZE = 128;
+
+    private static final int PRECISION_BITS = 3; // see PackedZtimeStamp
+    private static final int BLOCK_HEADER_LENGTH = Long.BYTES + Long.BYTES + 1; // base, minimum delta, & width
+
+    private final byte[] bytes; // the encoded form: row count, block offsets, then the blocks
+    private final ByteBuffer view; // of the bytes, for the (absolute) reads
+    private final int rows;
+    private final int blocksAt;
+    private final int[] blockOffsets;
+
+    private ZtimeStampBlocks( byte[] bytes, int rows, int[] blockOffsets ) {
+        this.bytes = bytes;
+        view = ByteBuffer.wrap( bytes );
+        this.rows = rows;
+        this.blockOffsets = blockOffsets;
+        blocksAt = Integer.BYTES * (1 + blockOffsets.length);
+    }
+
+    /**
+     * @param packed from <code>toPackedLong()</code> or <code>PackedZtimeStamp.pack(...)</code>
+     * @throws IllegalArgumentException if a value is not a packed timestamp
+     */
+    public static ZtimeStampBlocks encode( long[] packed ) {
+        return encode( packed, 0, packed.length );
+    }
+
+    /**
+     * @param packed from <code>toPackedLong()</code> or <code>PackedZtimeStamp.pack(...)</code>
+     * @throws IllegalArgumentException  if a value is not a packed timestamp
+     * @throws IndexOutOfBoundsException if the <code>offset</code> & <code>length</code> are not within the <code>packed</code>
+     */
+    public static ZtimeStampBlocks encode( long[] packed, int offset, int length ) {
+        Objects.checkFromIndexSize( offset, length, packed.length );
+        long[] keys = new long[length];
+        for ( int i = 0; i < length; i++ ) {
+            keys[i] = key( packed[offset + i] );
+        }
+        return encodeKeys( keys );
+    }
+
+    /**
+     * Encode all the rows of the <code>column</code> (in their current order).
+     */
+    public static ZtimeStampBlocks encode( ZtimeStampColumn column ) {
+        long[] keys = new long[column.size()];
+        for ( int i = 0; i < keys.length; i++ ) {
+            keys[i] = key( column.getPacked( i ) );
+        }
+        return encodeKeys( keys );
+    }
+
+    /**
+     * @param bytes from <code>toByteArray()</code> (not copied, so must not be changed)
+     * @throws IllegalArgumentException if the <code>bytes</code> are not a valid encoded form
+     */
+    public static ZtimeStampBlocks fromByteArray( byte[] bytes ) {
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap( bytes );
+            int rows = buffer.getInt();
+            if ( rows < 0 ) {
+                throw new IllegalArgumentException( "expected a row count, but got: " + rows );
+            }
+            long blocksAt = Integer.BYTES * (1L + blockCount( rows ));
+            if ( (rows == 0) ? (bytes.length != blocksAt) : ((bytes.length - BLOCK_HEADER_LENGTH) < blocksAt) ) {
+                throw new IllegalArgumentException( "expected more than " + blocksAt + " bytes for " + rows + " rows, but got: " + bytes.length );
+            }
+            int[] blockOffsets = new int[blockCount( rows )];
+            for ( int block = 0; block < blockOffsets.length; block++ ) {
+                int blockAt = buffer.getInt();
+                int expectedMinimum = (block == 0) ? 0 : (blockOffsets[block - 1] + BLOCK_HEADER_LENGTH);
+                if ( (blockAt < expectedMinimum) || ((bytes.length - blocksAt - BLOCK_HEADER_LENGTH) < blockAt) ) {
+                    throw new IllegalArgumentException( "block " + block + " offset out of order or range: " + blockAt );
+                }
+                blockOffsets[block] = blockAt;
+            }
+            ZtimeStampBlocks blocks = new ZtimeStampBlocks( bytes, rows, blockOffsets );
+            for ( int block = 0; block < blockOffsets.length; block++ ) {
+                blocks.checkBlock( block );
+            }
+            return blocks;
+        }
+        catch ( BufferUnderflowException e ) {
+            throw new IllegalArgumentException( "truncated (" + bytes.length + " bytes)" );
+        }
+    }
+
+    /**
+     * @return the encoded form (NOT a copy, so must not be changed)
+     */
+    public byte[] toByteArray() {
+        return bytes;
+    }
+
+    public int size() {
+        return rows;
+    }
+
+    public int blockCount() {
+        return blockOffsets.length;
+    }
+
+    /**
+     * @return the packed timestamp of the <code>row</code> (decoding just its block, up to the row)
+     * @throws IndexOutOfBoundsException if the <code>row</code> is not 0 thru <code>size() - 1</code>
+     */
+    public long getPacked( int row ) {
+        Objects.checkIndex( row, rows );
+        int at = blocksAt + blockOffsets[row / BLOCK_SIZE];
+        long key = getLong( at );
+        long minDelta = getLong( at + Long.BYTES );
+        int width = bytes[at + Long.BYTES + Long.BYTES];
+        long bitsAt = (long)(at + BLOCK_HEADER_LENGTH) << 3;
+        for ( int i = row % BLOCK_SIZE; i > 0; i--, bitsAt += width ) {
+            key += minDelta + getBits( bytes, bitsAt, width );
+        }
+        return unKey( key );
+    }
+
+    public ISO8601ZtimeStamp get( int row ) {
+        return ISO8601ZtimeStamp.fromPackedLong( getPacked( row ) );
+    }
+
+    /**
+     * Decode the <code>block</code> into the <code>packed</code> array (which needs room for <code>BLOCK_SIZE</code>).
+     *
+     * @return the number of rows in the <code>block</code> (only the last block can have fewer than <code>BLOCK_SIZE</code>)
+     * @throws IndexOutOfBoundsException if the <code>block</code> is not 0 thru <code>blockCount() - 1</code>
+     */
+    public int decodeBlock( int block, long[] packed ) {
+        Objects.checkIndex( block, blockOffsets.length );
+        int count = rowsIn( block );
+        int at = blocksAt + blockOffsets[block];
+        long key = getLong( at );
+        long minDelta = getLong( at + Long.BYTES );
+        int width = bytes[at + Long.BYTES + Long.BYTES];
+        long bitsAt = (long)(at + BLOCK_HEADER_LENGTH) << 3;
+        packed[0] = unKey( key );
+        for ( int i = 1; i < count; i++, bitsAt += width ) {
+            key += minDelta + getBits( bytes, bitsAt, width );
+            packed[i] = unKey( key );
+        }
+        return count;
+    }
+
+    /**
+     * Stream decode all the rows, in order, as packed timestamps.
+     */
+    public void forEachPacked( LongConsumer consumer ) {
+        long[] packed = new long[BLOCK_SIZE];
+        for ( int block = 0; block < blockOffsets.length; block++ ) {
+            int count = decodeBlock( block, packed );
+            for ( int i = 0; i < count; i++ ) {
+                consumer.accept( packed[i] );
+            }
+        }
+    }
+
+    /**
+     * Stream decode all the rows, in order, as <code>ISO8601ZtimeStamp</code>s.
+     */
+    public void forEach( Consumer<ISO8601ZtimeStamp> consumer ) {
+        forEachPacked( packed -> consumer.accept( ISO8601ZtimeStamp.fromPackedLong( packed ) ) );
+    }
+
+    private static ZtimeStampBlocks encodeKeys( long[] keys ) {
+        int[] blockOffsets = new int[blockCount( keys.length )];
+        int blocksAt = Integer.BYTES * (1 + blockOffsets.length);
+        byte[] bytes = new byte[blocksAt + (blockOffsets.length * (BLOCK_HEADER_LENGTH + (BLOCK_SIZE * 2)))];
+        putInt( bytes, 0, keys.length );
+        int at = blocksAt;
+        for ( int block = 0; block < blockOffsets.length; block++ ) {
+            int start = block * BLOCK_SIZE;
+            int end = Math.min( keys.length, start + BLOCK_SIZE );
+            long minDelta = Long.MAX_VALUE, maxDelta = Long.MIN_VALUE;
+            for ( int i = start + 1; i < end; i++ ) {
+                long delta = keys[i] - keys[i - 1];
+                minDelta = Math.min( minDelta, delta );
+                maxDelta = Math.max( maxDelta, delta );
+            }
+            if ( end - start == 1 ) {
+                minDelta = maxDelta = 0;
+            }
+            int width = 64 - Long.numberOfLeadingZeros( maxDelta - minDelta );
+            int length = BLOCK_HEADER_LENGTH + (int)(((long)(end - start - 1) * width + 7) >>> 3);
+            if ( (bytes.length - at) < length ) {
+                bytes = Arrays.copyOf( bytes, Math.max( bytes.length * 2, at + length ) );
+            }
+            putInt( bytes, Integer.BYTES * (1 + block), blockOffsets[block] = at - blocksAt );
+            putLong( bytes, at, keys[start] );
+            putLong( bytes, at + Long.BYTES, minDelta );
+            bytes[at + Long.BYTES + Long.BYTES] = (byte)width;
+            long bitsAt = (long)(at + BLOCK_HEADER_LENGTH) << 3;
+            for ( int i = start + 1; i < end; i++, bitsAt += width ) {
+                putBits( bytes, bitsAt, width, keys[i] - keys[i - 1] - minDelta );
+            }
+            at += length;
+        }
+        return new ZtimeStampBlocks( Arrays.copyOf( bytes, at ), keys.length, blockOffsets );
+    }
+
+    private void checkBlock( int block ) {
+        int at = blocksAt + blockOffsets[block];
+        int width = bytes[at + Long.BYTES + Long.BYTES];
+        long length = BLOCK_HEADER_LENGTH + (((long)(rowsIn( block ) - 1) * width + 7) >>> 3);
+        long end = (block + 1 < blockOffsets.length) ? (blocksAt + blockOffsets[block + 1]) : bytes.length;
+        if ( (width < 0) || (64 < width) || ((at + length) != end) ) {
+            throw new IllegalArgumentException( "block " + block + " has a bad width (" + width + ") or length" );
+        }
+        long key = getLong( at );
+        long minDelta = getLong( at + Long.BYTES );
+        long bitsAt = (long)(at + BLOCK_HEADER_LENGTH) << 3;
+        for ( int i = rowsIn( block ); true; i--, bitsAt += width ) {
+            int code = (int)(key & ((1 << PRECISION_BITS) - 1));
+            long epochDay = Math.floorDiv( key >> PRECISION_BITS, EpochDays.SECONDS_PER_DAY * 1000000 );
+            if ( (code == 0) || (TimeLength.Nanos.ordinal() < code) || !EpochDays.inRange( epochDay ) ) {
+                throw new IllegalArgumentException( "block " + block + " has a bad key: " + key );
+            }
+            if ( i == 1 ) {
+                return;
+            }
+            key += minDelta + getBits( bytes, bitsAt, width );
+        }
+    }
+
+    private int rowsIn( int block ) {
+        return Math.min( BLOCK_SIZE, rows - (block * BLOCK_SIZE) );
+    }
+
+    private static int blockCount( int rows ) {
+        return (int)((rows + (BLOCK_SIZE - 1L)) / BLOCK_SIZE);
+    }
+
+    /**
+     * @return the (linear) key: the epoch micros over the precision code
+     */
+    private static long key( long packed ) {
+        if ( (packed <= 0) || (PackedZtimeStamp.getYear( packed ) == 0)
+             || (PackedZtimeStamp.getTimeLength( packed ) == TimeLength.Nanos) ) {
+            throw new IllegalArgumentException( "expected a packed timestamp, but got: " + packed );
+        }
+        return (PackedZtimeStamp.toEpochMicros( packed ) << PRECISION_BITS) | (packed & ((1 << PRECISION_BITS) - 1));
+    }
+
+    private static long unKey( long key ) {
+        return PackedZtimeStamp.fromEpochMicros( key >> PRECISION_BITS, PackedZtimeStamp.getTimeLength( key ) );
+    }
+
+    /**
+     * Write the low <code>width</code> bits of the <code>value</code> at the <code>bitsAt</code> (low bits first).
+     */
+    private static void putBits( byte[] b, long bitsAt, int width, long value ) {
+        for ( int written = 0; written < width; ) {
+            int bitIndex = (int)(bitsAt & 7);
+            int take = Math.min( 8 - bitIndex, width - written );
+            b[(int)(bitsAt >>> 3)] |= (byte)(((value >>> written) & ((1 << take) - 1)) << bitIndex);
+            written += take;
+            bitsAt += take;
+        }
+    }
+
+    private static long getBits( byte[] b, long bitsAt, int width ) {
+        long value = 0;
+        for ( int read = 0; read < width; ) {
+            int bitIndex = (int)(bitsAt & 7);
+            int take = Math.min( 8 - bitIndex, width - read );
+            value |= (long)((b[(int)(bitsAt >>> 3)] >>> bitIndex) & ((1 << take) - 1)) << read;
+            read += take;
+            bitsAt += take;
+        }
+        return value;
+    }
+
+    private long getLong( int at ) {
+        return view.getLong( at );
+    }
+
+    private static void putInt( byte[] b, int at, int value ) {
+        ByteBuffer.wrap( b ).putInt( at, value );
+    }
+
+    private static void putLong( byte[] b, int at, long value ) {
+        ByteBuffer.wrap( b ).putLong( at, value );
+    }
+}
@@ -0,0 +1,310 @@
+package org.litesoft.utils;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+import org.litesoft.utils.ISO8601ZtimeStamp.TimeLength;
+
+/**
+ * Rolling window time bucket aggregator, i.e. event counts (and value sums) per hour/minute/second/milli, without
+ * building a <code>toHour()</code> (or <code>toMinute()</code> ...) <code>String</code> per event to use as a map key.
+ * <p>
+ * A bucket is identified by its primitive index: the millis since 1970-01-01T00Z divided (floored) by the bucket's
+ * length (see <code>bucketOf</code> & <code>startOf</code>).  Each event is added to its bucket in every one of the
+ * granularities (in one pass); each granularity keeps only the newest <code>window</code> buckets (in primitive ring
+ * arrays).  Adding an event newer than the newest bucket advances the window, evicting (and, if there is a listener,
+ * reporting) the buckets that fall out of it; an event older than the window is dropped (see <code>getLate()</code>).
+ * <p>
+ * Instances are NOT thread safe.
+ */
+@SuppressWarnings("unused")
+public final class ZtimeStampBuckets {
+    /**
+     * Receiver of a bucket's totals.
+     */
+    @FunctionalInterface
+    public interface BucketConsumer {
+        void accept( TimeLength granularity, long bucket, long count, long sum );
+    }
+
+    private static final TimeLength[] TIME_LENGTHS = TimeLength.values();
+    private static final long[] MILLIS_PER_BUCKET = {3600000, 60000, 1000, 1}; // by ordinal: Hour thru Millis
+    private static final long EMPTY = Long.MIN_VALUE;
+
+    private final ISO8601ZtimeStampParser parser = new ISO8601ZtimeStampParser();
+    private final int window;
+    private final Ring[] rings; // by TimeLength ordinal, null if not a granularity
+    private final Ring[] granularities;
+    private final BucketConsumer evictionListener;
+    private long errors, late;
+
+    /**
+     * @param window        number of (newest) buckets kept per granularity (at least 1)
+     * @param granularities Hour thru Millis (at least one)
+     * @throws IllegalArgumentException if the <code>window</code> or a granularity is not acceptable
+     */
+    public ZtimeStampBuckets( int window, TimeLength... granularities ) {
+        this( window, null, granularities );
+    }
+
+    /**
+     * @param window           number of (newest) buckets kept per granularity (at least 1)
+     * @param evictionListener given each non-empty bucket as it falls out of the window (null for none)
+     * @param granularities    Hour thru Millis (at least one)
+     * @throws IllegalArgumentException if the <code>window</code> or a granularity is not acceptable
+     */
+    public ZtimeStampBuckets( int window, BucketConsumer evictionListener, TimeLength... granularities ) {
+        if ( window < 1 ) {
+            throw new IllegalArgumentException( "expected window of at least 1, but got: " + window );
+        }
+        if ( (granularities == null) || (granularities.length == 0) ) {
+            throw new IllegalArgumentException( "no granularities" );
+        }
+        this.window = window;
+        this.evictionListener = evictionListener;
+        rings = new Ring[TIME_LENGTHS.length];
+        for ( TimeLength granularity : granularities ) {
+            int ordinal = checkGranularity( granularity ).ordinal();
+            if ( rings[ordinal] != null ) {
+                throw new IllegalArgumentException( "duplicate granularity: " + granularity );
+            }
+            rings[ordinal] = new Ring( granularity, window );
+        }
+        this.granularities = Arrays.stream( rings ).filter( Objects::nonNull ).toArray( Ring[]::new );
+    }
+
+    /**
+     * @param granularity Hour thru Millis
+     * @return the index of the bucket (of the <code>granularity</code>) holding the <code>timeStamp</code>
+     * @throws IllegalStateException    if the <code>timeStamp</code> has an error
+     * @throws IllegalArgumentException if the <code>granularity</code> is not Hour thru Millis
+     */
+    public static long bucketOf( ISO8601ZtimeStamp timeStamp, TimeLength granularity ) {
+        return Math.floorDiv( timeStamp.toEpochMillis(), MILLIS_PER_BUCKET[checkGranularity( granularity ).ordinal()] );
+    }
+
+    /**
+     * @param granularity Hour thru Millis
+     * @return the start of the <code>bucket</code>, with the <code>granularity</code>'s precision (e.g. as
+     * <code>toHour()</code>)
+     * @throws IllegalArgumentException if the <code>granularity</code> is not Hour thru Millis, or the start is outside
+     *                                  the years 1 thru 9999
+     */
+    public static ISO8601ZtimeStamp startOf( long bucket, TimeLength granularity ) {
+        long millis = bucket * MILLIS_PER_BUCKET[checkGranularity( granularity ).ordinal()];
+        ISO8601ZtimeStamp start = ISO8601ZtimeStamp.fromEpochSecond( Math.floorDiv( millis, 1000 ),
+                                                                     Math.floorMod( millis, 1000 ) * 1000000 );
+        return (start.getTimeLength() == granularity) ? start : start.adjustTo( granularity );
+    }
+
+    public int getWindow() {
+        return window;
+    }
+
+    /**
+     * @return the number of rejected (<code>add</code> returned false) events
+     */
+    public long getErrors() {
+        return errors;
+    }
+
+    /**
+     * @return the number of (bucket) additions dropped as older than a granularity's window
+     */
+    public long getLate() {
+        return late;
+    }
+
+    /**
+     * Count an event with a value of 0.
+     *
+     * @return false if the <code>timeStamp</code> has an error (counted in <code>getErrors()</code>)
+     */
+    public boolean add( ISO8601ZtimeStamp timeStamp ) {
+        return add( timeStamp, 0 );
+    }
+
+    /**
+     * Count an event and add its <code>value</code> to the sums.
+     *
+     * @return false if the <code>timeStamp</code> has an error (counted in <code>getErrors()</code>)
+     */
+    public boolean add( ISO8601ZtimeStamp timeStamp, long value ) {
+        if ( timeStamp.hasError() ) {
+            errors++;
+            return false;
+        }
+        addEpochMillis( timeStamp.toEpochMillis(), value );
+        return true;
+    }
+
+    /**
+     * Count an event from raw (not yet normalized) text, parsing it in place (without building any
+     * <code>String</code>s), and add its <code>value</code> to the sums.
+     *
+     * @return false if the <code>iso8601ish</code> text does not parse (counted in <code>getErrors()</code>)
+     */
+    public boolean add( CharSequence iso8601ish, long value ) {
+        if ( !parser.load( iso8601ish ) ) {
+            errors++;
+            return false;
+        }
+        addEpochMillis( parser.toEpochMillis(), value );
+        return true;
+    }
+
+    /**
+     * Count an event at (the millis since 1970-01-01T00Z) <code>epochMillis</code> and add its <code>value</code> to
+     * the sums.
+     */
+    public void addEpochMillis( long epochMillis, long value ) {
+        for ( Ring ring : granularities ) {
+            if ( !ring.add( Math.floorDiv( epochMillis, ring.millisPerBucket ), value ) ) {
+                late++;
+            }
+        }
+    }
+
+    /**
+     * @return the newest bucket of the <code>granularity</code>, or <code>Long.MIN_VALUE</code> if nothing was added
+     */
+    public long getNewest( TimeLength granularity ) {
+        return ring( granularity ).newest;
+    }
+
+    /**
+     * @return the event count of the <code>bucket</code> (0 if outside the window)
+     */
+    public long getCount( TimeLength granularity, long bucket ) {
+        Ring ring = ring( granularity );
+        int slot = ring.slotOf( bucket );
+        return (slot == -1) ? 0 : ring.counts[slot];
+    }
+
+    /**
+     * @return the sum of the values of the <code>bucket</code> (0 if outside the window)
+     */
+    public long getSum( TimeLength granularity, long bucket ) {
+        Ring ring = ring( granularity );
+        int slot = ring.slotOf( bucket );
+        return (slot == -1) ? 0 : ring.sums[slot];
+    }
+
+    /**
+     * Feed the non-empty buckets of the <code>granularity</code>'s window, oldest first, to the <code>consumer</code>.
+     *
+     * @return the number of buckets fed
+     */
+    public int forEach( TimeLength granularity, BucketConsumer consumer ) {
+        Ring ring = ring( granularity );
+        int fed = 0;
+        if ( ring.newest != EMPTY ) {
+            for ( long bucket = ring.newest - window + 1; bucket <= ring.newest; bucket++ ) {
+                int slot = ring.slotOf( bucket );
+                if ( slot != -1 ) {
+                    consumer.accept( granularity, bucket, ring.counts[slot], ring.sums[slot] );
+                    fed++;
+                }
+            }
+        }
+        return fed;
+    }
+
+    /**
+     * Evict (and report to any listener, oldest first) all the buckets, e.g. at the end of the input; the counters are left as is.
+     */
+    public void flush() {
+        for ( Ring ring : granularities ) {
+            if ( ring.newest != EMPTY ) {
+                ring.evictThru( ring.newest );
+            }
+        }
+    }
+
+    private Ring ring( TimeLength granularity ) {
+        Ring ring = (granularity == null) ? null : rings[granularity.ordinal()];
+        if ( ring == null ) {
+            throw new IllegalArgumentException( "not a granularity of this instance: " + granularity );
+        }
+        return ring;
+    }
+
+    private static TimeLength checkGranularity( TimeLength granularity ) {
+        if ( (granularity == null) || (MILLIS_PER_BUCKET.length <= granularity.ordinal()) ) {
+            throw new IllegalArgumentException( "expected a granularity of Hour thru Millis, but got: " + granularity );
+        }
+        return granularity;
+    }
+
+    private final class Ring {
+        private final TimeLength granularity;
+        private final long millisPerBucket;
+        private final long[] buckets; // by slot, EMPTY if nothing there
+        private final long[] counts;
+        private final long[] sums;
+        private long newest = EMPTY;
+
+        private Ring( TimeLength granularity, int window ) {
+            this.granularity = granularity;
+            millisPerBucket = MILLIS_PER_BUCKET[granularity.ordinal()];
+            buckets = new long[window];
+            counts = new long[window];
+            sums = new long[window];
+            Arrays.fill( buckets, EMPTY );
+        }
+
+        /**
+         * @return false if the <code>bucket</code> is older than the window
+         */
+        private boolean add( long bucket, long value ) {
+            if ( (newest == EMPTY) || (newest < bucket) ) {
+                advanceTo( bucket );
+            } else if ( bucket <= (newest - window) ) {
+                return false;
+            }
+            int slot = (int)Math.floorMod( bucket, (long)window );
+            if ( buckets[slot] != bucket ) {
+                evict( slot );
+                buckets[slot] = bucket;
+            }
+            counts[slot]++;
+            sums[slot] += value;
+            return true;
+        }
+
+        private void advanceTo( long bucket ) {
+            if ( newest != EMPTY ) {
+                evictThru( Math.min( newest, bucket - window ) );
+            }
+            newest = bucket;
+        }
+
+        /**
+         * Evict the window's buckets, oldest first, thru the <code>last</code>.
+         */
+        private void evictThru( long last ) {
+            for ( long bucket = newest - window + 1; bucket <= last; bucket++ ) {
+                int slot = slotOf( bucket );
+                if ( slot != -1 ) {
+                    evict( slot );
+                }
+            }
+        }
+
+        private int slotOf( long bucket ) {
+            int slot = (int)Math.floorMod( bucket, (long)window );
+            return (buckets[slot] == bucket) && (bucket != EMPTY) ? slot : -1;
+        }
+
+        private void evict( int slot ) {
+            if ( buckets[slot] != EMPTY ) {
+                if ( evictionListener != null ) {
+                    evictionListener.accept( granularity, buckets[slot], counts[slot], sums[slot] );
+                }
+                buckets[slot] = EMPTY;
+                counts[slot] = 0;
+                sums[slot] = 0;
+            }
+        }
+    }
+}
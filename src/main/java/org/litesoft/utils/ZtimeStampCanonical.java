@@ -0,0 +1,121 @@
+package org.litesoft.utils;
+
+/**
+ * SWAR (SIMD within a register) checks of the canonical shapes, "yyyy-mm-ddThh:mm:ss.sssZ" and "yyyy-mm-ddThh:mm:ssZ",
+ * that most (already normalized) input has: the text is gathered 8 ASCII chars per <code>long</code> "word", and each
+ * word's separators and digits are checked (and the digits converted) with a few masked operations on all 8 lanes at
+ * once, rather than char by char.
+ * <p>
+ * The fast path is opt-in: it is only taken when the system property <code>org.litesoft.utils.canonicalFastPath=true</code>
+ * (until benchmarks show it pays for itself on typical input).  Even then, the parser only takes it when the shape
+ * (and the field ranges) match exactly; anything else (offsets, lower-case, white space, other precisions, or out of
+ * range fields) goes thru the full parsing, which also produces the errors.
+ * <p>
+ * Batches (<code>normalizeAll</code>) take the fast path per input: checking & converting a block of inputs at a time
+ * (in parallel arrays) was measured (see <code>BatchBenchmark</code>) to be no faster, in Java 17, than these fused
+ * per input checks.
+ */
+final class ZtimeStampCanonical {
+    static final boolean ENABLED = Boolean.getBoolean( "org.litesoft.utils.canonicalFastPath" );
+
+    static final int MILLIS_LENGTH = 24; // "yyyy-mm-ddThh:mm:ss.sssZ"
+    static final int SECOND_LENGTH = 20; // "yyyy-mm-ddThh:mm:ssZ"
+    static final long NOT_ASCII = -1; // never a valid word (all lanes are 0xFF)
+
+    // Per word: the separators (with zero digit lanes), and a mask of the digit lanes.
+    private static final long DATE_SEPARATORS = word( "\0\0\0\0-\0\0-" ); // "yyyy-mm-"
+    private static final long DATE_DIGITS = 0xFFFFFFFF00FFFF00L;
+    private static final long DAY_TIME_SEPARATORS = word( "\0\0T\0\0:\0\0" ); // "ddThh:mm"
+    private static final long DAY_TIME_DIGITS = 0xFFFF00FFFF00FFFFL;
+    private static final long SECOND_MILLIS_SEPARATORS = word( ":\0\0.\0\0\0Z" ); // ":ss.sssZ"
+    private static final long SECOND_MILLIS_DIGITS = 0x00FFFF00FFFFFF00L;
+    private static final long SECOND_SEPARATORS = word( ":\0\0Z" ); // ":ssZ" (in the low 4 lanes)
+    private static final long SECOND_DIGITS = 0x0000000000FFFF00L;
+
+    private static final long ZEROS = 0x3030303030303030L; // '0' in every lane
+    private static final long HIGH_NIBBLES = 0xF0F0F0F0F0F0F0F0L;
+    private static final long SIXES = 0x0606060606060606L;
+
+    private ZtimeStampCanonical() {
+    }
+
+    /**
+     * @return the <code>count</code> (at most 8) chars of the <code>text</code> from <code>at</code>, one per byte lane
+     * (the first char in the high lane), or <code>NOT_ASCII</code> if any is not ASCII
+     */
+    static long word( CharSequence text, int at, int count ) {
+        long word = 0;
+        int nonAscii = 0;
+        for ( int end = at + count; at < end; at++ ) {
+            char c = text.charAt( at );
+            nonAscii |= c;
+            word = (word << 8) | (c & 0xFF);
+        }
+        return ((nonAscii & ~0x7F) == 0) ? word : NOT_ASCII;
+    }
+
+    /**
+     * @return true if the <code>word</code> is "yyyy-mm-"
+     */
+    static boolean isDate( long word ) {
+        return matches( word, DATE_SEPARATORS, DATE_DIGITS );
+    }
+
+    /**
+     * @return true if the <code>word</code> is "ddThh:mm"
+     */
+    static boolean isDayTime( long word ) {
+        return matches( word, DAY_TIME_SEPARATORS, DAY_TIME_DIGITS );
+    }
+
+    /**
+     * @return true if the <code>word</code> is ":ss.sssZ"
+     */
+    static boolean isSecondMillis( long word ) {
+        return matches( word, SECOND_MILLIS_SEPARATORS, SECOND_MILLIS_DIGITS );
+    }
+
+    /**
+     * @return true if the (4 char) <code>word</code> is ":ssZ"
+     */
+    static boolean isSecond( long word ) {
+        return matches( word, SECOND_SEPARATORS, SECOND_DIGITS );
+    }
+
+    /**
+     * @return true if the <code>word</code> has exactly the <code>separators</code> and only '0'-'9' in the
+     * <code>digits</code> lanes
+     */
+    private static boolean matches( long word, long separators, long digits ) {
+        if ( (word & ~digits) != separators ) {
+            return false;
+        }
+        long digitLanes = word & digits;
+        long zeros = ZEROS & digits;
+        long highNibbles = HIGH_NIBBLES & digits;
+        return ((digitLanes & highNibbles) == zeros) // 0x30-0x3F
+               && (((digitLanes + (SIXES & digits)) & highNibbles) == zeros); // and not 0x3A-0x3F (which carry)
+    }
+
+    /**
+     * @param word that <code>isDate</code>, <code>isDayTime</code>, ... (i.e. its digit lanes are digits)
+     * @param lane of the first (high order) digit, 0 being the high lane of the word
+     * @return the value of the two digits at the <code>lane</code> & the next
+     */
+    static int twoDigits( long word, int lane ) {
+        int shift = (6 - lane) * 8;
+        int pair = (int)(word >>> shift) & 0x0F0F; // two lanes, less the '0's
+        return ((pair >>> 8) * 10) + (pair & 0x0F);
+    }
+
+    /**
+     * @return the value of the three digits at the <code>lane</code> & the next two
+     */
+    static int threeDigits( long word, int lane ) {
+        return ((int)(word >>> ((7 - lane) * 8)) & 0x0F) * 100 + twoDigits( word, lane + 1 );
+    }
+
+    private static long word( String chars ) {
+        return word( chars, 0, chars.length() );
+    }
+}
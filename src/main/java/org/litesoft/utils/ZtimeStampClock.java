@@ -0,0 +1,172 @@
+package org.litesoft.utils;
+
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+import org.litesoft.utils.ISO8601ZtimeStamp.TimeLength;
+
+/**
+ * Low-overhead source of "now" <code>ISO8601ZtimeStamp</code>s (the same values as
+ * <code>ISO8601ZtimeStamp.fromEpochMillis</code>), backing <code>ISO8601ZtimeStamp.now()</code>.
+ * <p>
+ * The "yyyy-mm-ddThh:mm:ss" prefix is formatted once per second, each new milli only concatenates a (precomputed)
+ * ".mmmZ" suffix, and calls within the same milli return the same (immutable) instance.
+ * <p>
+ * Two modes:<ul>
+ * <li> exact (the constructor): the millis supplier is read on every <code>now()</code>, AND
+ * <li> coarse (<code>coarse(...)</code>): a background (daemon) thread reads the millis supplier every tick, and
+ * <code>now()</code> just returns the last value (at most a tick stale); <code>close()</code> stops the ticking.
+ * </ul><p>
+ * The millis supplier is pluggable, so tests can use a deterministic clock.  Instances are thread safe.
+ */
+@SuppressWarnings("unused")
+public final class ZtimeStampClock implements AutoCloseable {
+    private static final String[] SUFFIXES = new String[1000]; // index 0 is just "Z" (like Instant.toString())
+
+    static {
+        SUFFIXES[0] = "Z";
+        for ( int millis = 1; millis < SUFFIXES.length; millis++ ) {
+            StringBuilder sb = new StringBuilder( 5 ).append( '.' );
+            SUFFIXES[millis] = ZtimeStampFormatter.append( sb, millis, 3 ).append( 'Z' ).toString();
+        }
+    }
+
+    private static final ZtimeStampClock SYSTEM = new ZtimeStampClock( System::currentTimeMillis );
+
+    private final LongSupplier millisSupplier;
+    private final ScheduledExecutorService ticker; // null when exact
+    private volatile Rendered last;
+
+    /**
+     * An exact clock.
+     *
+     * @param millisSupplier of the epoch millis, e.g. <code>System::currentTimeMillis</code>
+     * @throws IllegalArgumentException if the <code>millisSupplier</code> is null
+     */
+    public ZtimeStampClock( LongSupplier millisSupplier ) {
+        this( millisSupplier, null );
+    }
+
+    private ZtimeStampClock( LongSupplier millisSupplier, ScheduledExecutorService ticker ) {
+        if ( millisSupplier == null ) {
+            throw new IllegalArgumentException( "no millisSupplier" );
+        }
+        this.millisSupplier = millisSupplier;
+        this.ticker = ticker;
+        last = render( millisSupplier.getAsLong(), null );
+    }
+
+    /**
+     * @return the shared exact clock over <code>System.currentTimeMillis()</code>
+     */
+    public static ZtimeStampClock system() {
+        return SYSTEM;
+    }
+
+    /**
+     * A coarse clock over <code>System.currentTimeMillis()</code>, see <code>coarse(LongSupplier, long)</code>.
+     */
+    public static ZtimeStampClock coarse( long tickMillis ) {
+        return coarse( System::currentTimeMillis, tickMillis );
+    }
+
+    /**
+     * A coarse clock, whose <code>now()</code> values are refreshed (by a daemon thread) every <code>tickMillis</code>.
+     * It should be <code>close()</code>d when no longer needed.
+     *
+     * @param millisSupplier of the epoch millis
+     * @param tickMillis     refresh period (at least 1)
+     * @throws IllegalArgumentException if the <code>millisSupplier</code> is null or <code>tickMillis</code> is less than 1
+     */
+    public static ZtimeStampClock coarse( LongSupplier millisSupplier, long tickMillis ) {
+        if ( tickMillis < 1 ) {
+            throw new IllegalArgumentException( "expected tickMillis of at least 1, but got: " + tickMillis );
+        }
+        ScheduledThreadPoolExecutor ticker = new ScheduledThreadPoolExecutor( 1, r -> {
+            Thread thread = new Thread( r, "ZtimeStampClock-ticker" );
+            thread.setDaemon( true );
+            return thread;
+        } );
+        ZtimeStampClock clock = new ZtimeStampClock( millisSupplier, ticker );
+        ticker.scheduleAtFixedRate( clock::tick, tickMillis, tickMillis, TimeUnit.MILLISECONDS );
+        return clock;
+    }
+
+    public boolean isCoarse() {
+        return (ticker != null);
+    }
+
+    /**
+     * @return the current time (for a coarse clock: as of the last tick)
+     */
+    public ISO8601ZtimeStamp now() {
+        return isCoarse() ? last.timeStamp : at( millisSupplier.getAsLong() );
+    }
+
+    /**
+     * Same value as <code>ISO8601ZtimeStamp.fromEpochMillis</code>, but reusing this clock's per-second prefix (so best
+     * for millis close to "now").
+     */
+    public ISO8601ZtimeStamp at( long millis ) {
+        Rendered rendered = last;
+        if ( rendered.millis != millis ) {
+            last = rendered = render( millis, rendered );
+        }
+        return rendered.timeStamp;
+    }
+
+    /**
+     * Stop the ticking of a coarse clock (<code>now()</code> then keeps returning the last value); a no-op otherwise.
+     */
+    @Override
+    public void close() {
+        if ( ticker != null ) {
+            ticker.shutdownNow();
+        }
+    }
+
+    /**
+     * Re-read the millis supplier (what the ticker does every tick).
+     */
+    void tick() {
+        at( millisSupplier.getAsLong() );
+    }
+
+    private static Rendered render( long millis, Rendered previous ) {
+        long epochSecond = Math.floorDiv( millis, 1000 );
+        String prefix;
+        if ( (previous != null) && (previous.prefix != null) && (previous.epochSecond == epochSecond) ) {
+            prefix = previous.prefix;
+        } else if ( EpochDays.inRange( Math.floorDiv( epochSecond, EpochDays.SECONDS_PER_DAY ) ) ) {
+            int civil = EpochDays.toCivil( Math.floorDiv( epochSecond, EpochDays.SECONDS_PER_DAY ) );
+            int secondOfDay = (int)Math.floorMod( epochSecond, EpochDays.SECONDS_PER_DAY );
+            char[] c = new char[TimeLength.Second.zLessLength() + 1];
+            ZtimeStampFormatter.format( c, 0, EpochDays.year( civil ), EpochDays.month( civil ), EpochDays.day( civil ),
+                                        secondOfDay / 3600, (secondOfDay / 60) % 60, secondOfDay % 60, 0,
+                                        TimeLength.Second );
+            prefix = new String( c, 0, TimeLength.Second.zLessLength() ); // drop the 'Z'
+        } else { // outside years 1-9999
+            return new Rendered( millis, epochSecond, null, ISO8601ZtimeStamp.fromEpochMillis( millis ) );
+        }
+        int millisOfSecond = Math.floorMod( millis, 1000 );
+        return new Rendered( millis, epochSecond, prefix,
+                             new ISO8601ZtimeStamp( prefix.concat( SUFFIXES[millisOfSecond] ),
+                                                    (millisOfSecond == 0) ? TimeLength.Second : TimeLength.Millis ) );
+    }
+
+    private static final class Rendered {
+        private final long millis;
+        private final long epochSecond;
+        private final String prefix; // "yyyy-mm-ddThh:mm:ss", null if outside years 1-9999
+        private final ISO8601ZtimeStamp timeStamp;
+
+        private Rendered( long millis, long epochSecond, String prefix, ISO8601ZtimeStamp timeStamp ) {
+            this.millis = millis;
+            this.epochSecond = epochSecond;
+            this.prefix = prefix;
+            this.timeStamp = timeStamp;
+        }
+    }
+}
@@ -0,0 +1,353 @@
+package org.litesoft.utils;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import org.litesoft.utils.ISO8601ZtimeStamp.TimeLength;
+import org.litesoft.utils.ZtimeStampError.Code;
+
+/**
+ * Compact binary forms of <code>ISO8601ZtimeStamp</code>s (rather than the 14-30 char <code>getValue()</code>), both of
+ * which keep the precision (<code>TimeLength</code>), and carry errors as just their <code>Code</code> (a decoded
+ * error's message is the Code's text, and it has no value).
+ * <p>
+ * Fixed (<code>FIXED_LENGTH</code> bytes): the <code>toPackedLong()</code> form (see <code>PackedZtimeStamp</code>),
+ * or for an error the negative <code>-1 - Code.ordinal()</code>.  Nanos precision does not fit (is not packable).
+ * <p>
+ * Deltas (for sequences, and smallest when they are sorted): a varint count and a varint byte length, then per entry a
+ * varint of the zig-zagged change in epoch seconds (from the previous entry, the first from 1970-01-01T00Z) shifted
+ * over a 3 bit tag (the <code>TimeLength</code> ordinal, or 7 for an error), followed by a varint of either the
+ * fraction of the second (as millis, micros, or nanos, per the precision; nothing for Hour thru Second) or the error
+ * Code ordinal.  All precisions, including Nanos, are supported; a sorted run of millisecond events takes 3-4 bytes
+ * per entry.
+ */
+@SuppressWarnings("unused")
+public final class ZtimeStampCodec {
+    public static final int FIXED_LENGTH = Long.BYTES;
+
+    private static final Code[] CODES = Code.values();
+    private static final TimeLength[] TIME_LENGTHS = TimeLength.values();
+    private static final int TAG_BITS = 3;
+    private static final int ERROR_TAG = 7;
+    private static final int MAX_ENTRY_LENGTH = 10 + 5; // varint long + varint int
+
+    private ZtimeStampCodec() {
+    }
+
+    /**
+     * @return the fixed (8 byte) form of the <code>timeStamp</code>
+     * @throws IllegalArgumentException if the <code>timeStamp</code> is not an error and not <code>isPackable()</code>
+     *                                  (e.g. Nanos precision)
+     */
+    public static long toFixed( ISO8601ZtimeStamp timeStamp ) {
+        Code code = timeStamp.getErrorCode();
+        if ( code != null ) {
+            return -1L - code.ordinal();
+        }
+        if ( !timeStamp.isPackable() ) {
+            throw new IllegalArgumentException( "not packable: " + timeStamp );
+        }
+        return timeStamp.toPackedLong();
+    }
+
+    /**
+     * @param fixed from <code>toFixed</code>
+     * @throws IllegalArgumentException if the <code>fixed</code> form is not valid
+     */
+    public static ISO8601ZtimeStamp fromFixed( long fixed ) {
+        if ( fixed < 0 ) {
+            return error( -1L - fixed );
+        }
+        int code = (int)(fixed & ((1 << TAG_BITS) - 1)); // the (inverted) precision code: 1 (Micros) thru 5 (Hour)
+        if ( (code == 0) || (TimeLength.Nanos.ordinal() < code) ) {
+            throw new IllegalArgumentException( "expected a packed timestamp, but got: " + fixed + " (precision code " + code + ")" );
+        }
+        try { // re-validate the fields
+            PackedZtimeStamp.pack( PackedZtimeStamp.getYear( fixed ), PackedZtimeStamp.getMonth( fixed ), PackedZtimeStamp.getDay( fixed ),
+                                   PackedZtimeStamp.getHour( fixed ), PackedZtimeStamp.getMinute( fixed ),
+                                   PackedZtimeStamp.getSecond( fixed ), PackedZtimeStamp.getMicros( fixed ),
+                                   PackedZtimeStamp.getTimeLength( fixed ) );
+        }
+        catch ( IllegalArgumentException e ) {
+            throw new IllegalArgumentException( "expected a packed timestamp, but got: " + fixed + " (" + e.getMessage() + ")" );
+        }
+        return ISO8601ZtimeStamp.fromPackedLong( fixed );
+    }
+
+    /**
+     * @see #toFixed(ISO8601ZtimeStamp)
+     */
+    public static void writeFixed( DataOutput out, ISO8601ZtimeStamp timeStamp ) throws IOException {
+        out.writeLong( toFixed( timeStamp ) );
+    }
+
+    /**
+     * @see #fromFixed(long)
+     */
+    public static ISO8601ZtimeStamp readFixed( DataInput in ) throws IOException {
+        return fromFixed( in.readLong() );
+    }
+
+    /**
+     * Write (relative, i.e. advancing the position, in the <code>buffer</code>'s byte order) the fixed form.
+     *
+     * @return the <code>buffer</code>
+     * @see #toFixed(ISO8601ZtimeStamp)
+     */
+    public static ByteBuffer writeFixed( ByteBuffer buffer, ISO8601ZtimeStamp timeStamp ) {
+        return buffer.putLong( toFixed( timeStamp ) );
+    }
+
+    /**
+     * Read (relative, in the <code>buffer</code>'s byte order) the fixed form.
+     *
+     * @see #fromFixed(long)
+     */
+    public static ISO8601ZtimeStamp readFixed( ByteBuffer buffer ) {
+        return fromFixed( buffer.getLong() );
+    }
+
+    /**
+     * @return the deltas form of the <code>timeStamps</code>
+     * @throws IllegalArgumentException if a (non-error) timestamp has no <code>TimeLength</code> or is outside the
+     *                                  years 1 thru 9999
+     */
+    public static byte[] toDeltas( ISO8601ZtimeStamp[] timeStamps ) {
+        byte[] entries = new byte[Math.max( 16, timeStamps.length * 4 )];
+        int length = 0;
+        long previous = 0;
+        for ( ISO8601ZtimeStamp timeStamp : timeStamps ) {
+            if ( (entries.length - length) < MAX_ENTRY_LENGTH ) {
+                entries = Arrays.copyOf( entries, entries.length * 2 );
+            }
+            Code code = timeStamp.getErrorCode();
+            if ( code != null ) {
+                length = putVarLong( entries, length, ERROR_TAG );
+                length = putVarLong( entries, length, code.ordinal() );
+                continue;
+            }
+            TimeLength precision = timeStamp.getTimeLength();
+            if ( !timeStamp.isKeyable() ) {
+                throw new IllegalArgumentException( "not encodable: " + timeStamp );
+            }
+            long epochSecond = timeStamp.toEpochSecond();
+            length = putVarLong( entries, length, (zigZag( epochSecond - previous ) << TAG_BITS) | precision.ordinal() );
+            previous = epochSecond;
+            int nanoOfSecond = timeStamp.getNanoOfSecond();
+            switch ( precision ) {
+                case Millis -> length = putVarLong( entries, length, nanoOfSecond / 1000000 );
+                case Micros -> length = putVarLong( entries, length, nanoOfSecond / 1000 );
+                case Nanos -> length = putVarLong( entries, length, nanoOfSecond );
+                default -> {
+                }
+            }
+        }
+        byte[] header = new byte[20];
+        int headerLength = putVarLong( header, putVarLong( header, 0, timeStamps.length ), length );
+        byte[] result = Arrays.copyOf( header, headerLength + length );
+        System.arraycopy( entries, 0, result, headerLength, length );
+        return result;
+    }
+
+    /**
+     * @param deltas from <code>toDeltas</code> (exactly)
+     * @throws IllegalArgumentException if the <code>deltas</code> are not valid
+     */
+    public static ISO8601ZtimeStamp[] fromDeltas( byte[] deltas ) {
+        ByteBuffer buffer = ByteBuffer.wrap( deltas );
+        ISO8601ZtimeStamp[] timeStamps = readDeltas( buffer );
+        if ( buffer.hasRemaining() ) {
+            throw new IllegalArgumentException( "expected " + deltas.length + " bytes of deltas, but got: " + buffer.position() );
+        }
+        return timeStamps;
+    }
+
+    /**
+     * @see #toDeltas(ISO8601ZtimeStamp[])
+     */
+    public static void writeDeltas( DataOutput out, ISO8601ZtimeStamp[] timeStamps ) throws IOException {
+        out.write( toDeltas( timeStamps ) );
+    }
+
+    /**
+     * Read a deltas form (reading exactly its bytes).
+     *
+     * @throws IllegalArgumentException if the deltas are not valid
+     */
+    public static ISO8601ZtimeStamp[] readDeltas( DataInput in ) throws IOException {
+        int count = checkedLength( readVarLong( in ), "count" );
+        byte[] entries = readFully( in, checkedLength( readVarLong( in ), "length" ) );
+        ByteBuffer buffer = ByteBuffer.wrap( entries );
+        ISO8601ZtimeStamp[] timeStamps = readEntries( buffer, count );
+        if ( buffer.hasRemaining() ) {
+            throw new IllegalArgumentException( "expected " + entries.length + " bytes of entries, but got: " + buffer.position() );
+        }
+        return timeStamps;
+    }
+
+    /**
+     * Write (relative, i.e. advancing the position) the deltas form.
+     *
+     * @return the <code>buffer</code>
+     * @throws BufferOverflowException if it does not fit
+     * @see #toDeltas(ISO8601ZtimeStamp[])
+     */
+    public static ByteBuffer writeDeltas( ByteBuffer buffer, ISO8601ZtimeStamp[] timeStamps ) {
+        return buffer.put( toDeltas( timeStamps ) );
+    }
+
+    /**
+     * Read (relative, i.e. advancing the position past exactly its bytes) a deltas form.
+     *
+     * @throws IllegalArgumentException if the deltas are not valid
+     */
+    public static ISO8601ZtimeStamp[] readDeltas( ByteBuffer buffer ) {
+        int count, length;
+        try {
+            count = checkedLength( readVarLong( buffer ), "count" );
+            length = checkedLength( readVarLong( buffer ), "length" );
+        }
+        catch ( BufferUnderflowException e ) {
+            throw new IllegalArgumentException( "expected a count & length, but the bytes ran out" );
+        }
+        if ( buffer.remaining() < length ) {
+            throw new IllegalArgumentException( "expected " + length + " bytes of entries, but got: " + buffer.remaining() );
+        }
+        ByteBuffer entries = buffer.slice( buffer.position(), length );
+        buffer.position( buffer.position() + length );
+        ISO8601ZtimeStamp[] timeStamps = readEntries( entries, count );
+        if ( entries.hasRemaining() ) {
+            throw new IllegalArgumentException( "expected " + length + " bytes of entries, but got: " + entries.position() );
+        }
+        return timeStamps;
+    }
+
+    /**
+     * Read the (untrusted) <code>length</code> bytes, growing the array as they are actually read (rather than
+     * allocating all of it up front).
+     */
+    private static byte[] readFully( DataInput in, int length ) throws IOException {
+        byte[] bytes = new byte[Math.min( length, 8192 )];
+        int read = 0;
+        while ( read < length ) {
+            if ( read == bytes.length ) {
+                bytes = Arrays.copyOf( bytes, (int)Math.min( length, bytes.length * 2L ) );
+            }
+            in.readFully( bytes, read, bytes.length - read );
+            read = bytes.length;
+        }
+        return bytes;
+    }
+
+    private static ISO8601ZtimeStamp[] readEntries( ByteBuffer entries, int count ) {
+        if ( entries.remaining() < count ) { // each entry is at least 1 byte
+            throw new IllegalArgumentException( "expected at least " + count + " bytes of entries, but got: " + entries.remaining() );
+        }
+        try {
+            return readEntriesUnchecked( entries, count );
+        }
+        catch ( BufferUnderflowException e ) {
+            throw new IllegalArgumentException( "expected " + count + " entries, but the bytes ran out" );
+        }
+    }
+
+    private static ISO8601ZtimeStamp[] readEntriesUnchecked( ByteBuffer entries, int count ) {
+        ISO8601ZtimeStamp[] timeStamps = new ISO8601ZtimeStamp[count];
+        long previous = 0;
+        for ( int i = 0; i < count; i++ ) {
+            long head = readVarLong( entries );
+            int tag = (int)(head & ((1 << TAG_BITS) - 1));
+            if ( tag == ERROR_TAG ) {
+                timeStamps[i] = error( readVarLong( entries ) );
+                continue;
+            }
+            if ( TIME_LENGTHS.length <= tag ) {
+                throw new IllegalArgumentException( "expected a TimeLength (or error) tag, but got: " + tag );
+            }
+            TimeLength precision = TIME_LENGTHS[tag];
+            long epochSecond = previous + unZigZag( head >>> TAG_BITS );
+            int nanoOfSecond = switch ( precision ) {
+                case Millis -> fraction( readVarLong( entries ), 999 ) * 1000000;
+                case Micros -> fraction( readVarLong( entries ), 999999 ) * 1000;
+                case Nanos -> fraction( readVarLong( entries ), 999999999 );
+                default -> 0;
+            };
+            if ( !EpochDays.inRange( Math.floorDiv( epochSecond, EpochDays.SECONDS_PER_DAY ) ) ) {
+                throw new IllegalArgumentException( "epochSecond outside the years 1 thru 9999: " + epochSecond );
+            }
+            timeStamps[i] = ISO8601ZtimeStamp.fromEpoch( epochSecond, nanoOfSecond, precision );
+            previous = epochSecond;
+        }
+        return timeStamps;
+    }
+
+    private static ISO8601ZtimeStamp error( long ordinal ) {
+        if ( (ordinal < 0) || (CODES.length <= ordinal) ) {
+            throw new IllegalArgumentException( "expected an error Code ordinal, but got: " + ordinal );
+        }
+        return new ISO8601ZtimeStamp( ZtimeStampError.fromCode( CODES[(int)ordinal] ) );
+    }
+
+    private static int fraction( long value, int max ) {
+        if ( (value < 0) || (max < value) ) {
+            throw new IllegalArgumentException( "expected a fraction of 0 thru " + max + ", but got: " + value );
+        }
+        return (int)value;
+    }
+
+    private static int checkedLength( long value, String what ) {
+        if ( (value < 0) || (Integer.MAX_VALUE < value) ) {
+            throw new IllegalArgumentException( "expected a " + what + " of 0 thru " + Integer.MAX_VALUE + ", but got: " + value );
+        }
+        return (int)value;
+    }
+
+    private static long zigZag( long value ) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unZigZag( long value ) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    /**
+     * @return the offset just past the written (LEB128, low 7 bits first) varint
+     */
+    private static int putVarLong( byte[] b, int at, long value ) {
+        while ( (value & ~0x7FL) != 0 ) {
+            b[at++] = (byte)((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        b[at++] = (byte)value;
+        return at;
+    }
+
+    private static long readVarLong( ByteBuffer buffer ) {
+        long value = 0;
+        for ( int shift = 0; shift < 64; shift += 7 ) {
+            byte b = buffer.get();
+            value |= (long)(b & 0x7F) << shift;
+            if ( b >= 0 ) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException( "varint longer than 10 bytes" );
+    }
+
+    private static long readVarLong( DataInput in ) throws IOException {
+        long value = 0;
+        for ( int shift = 0; shift < 64; shift += 7 ) {
+            byte b = in.readByte();
+            value |= (long)(b & 0x7F) << shift;
+            if ( b >= 0 ) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException( "varint longer than 10 bytes" );
+    }
+}
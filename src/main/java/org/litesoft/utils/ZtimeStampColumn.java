@@ -0,0 +1,217 @@
+package org.litesoft.utils;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.function.LongConsumer;
+
+import org.litesoft.utils.ISO8601ZtimeStamp.TimeLength;
+
+/**
+ * Appendable column of normalized timestamps, stored off-heap (in a direct <code>ByteBuffer</code>) as their 8 byte
+ * packed form (see <code>PackedZtimeStamp</code>), rather than as <code>ISO8601ZtimeStamp</code>s (each an object plus
+ * a <code>String</code> plus its backing array).
+ * <p>
+ * When the rows are sorted (tracked as they are appended, or see <code>sort()</code>), range queries ("all the rows
+ * from one timestamp thru another") are binary searches.  Range bounds are compared by instant, ignoring precision,
+ * e.g. a <code>to</code> of "...T13Z" includes a row of "...T13:00:00.000Z" (but not "...T13:00:00.001Z").
+ * <p>
+ * Note: as Nanos precision is not packable, such timestamps must be adjusted (e.g. <code>toMicros()</code>) first.
+ * Instances are NOT thread safe.
+ */
+@SuppressWarnings("unused")
+public final class ZtimeStampColumn {
+    private static final int PRECISION_BITS = 3; // see PackedZtimeStamp
+    private static final int MIN_CAPACITY = 16;
+
+    private ByteBuffer rows;
+    private int size;
+    private boolean sorted = true;
+
+    public ZtimeStampColumn() {
+        this( 1024 );
+    }
+
+    /**
+     * @param initialCapacity number of rows to allocate room for
+     * @throws IllegalArgumentException if the <code>initialCapacity</code> is negative
+     */
+    public ZtimeStampColumn( int initialCapacity ) {
+        if ( initialCapacity < 0 ) {
+            throw new IllegalArgumentException( "expected initialCapacity to be non-negative, but got: " + initialCapacity );
+        }
+        rows = allocate( Math.max( MIN_CAPACITY, initialCapacity ) );
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return the number of rows there is (off-heap) room for
+     */
+    public int capacity() {
+        return rows.capacity() / Long.BYTES;
+    }
+
+    /**
+     * @return true if the rows are in (non-descending) order, i.e. range queries are available
+     */
+    public boolean isSorted() {
+        return sorted;
+    }
+
+    /**
+     * Append a (e.g. <code>fromString</code>) result.
+     *
+     * @throws IllegalArgumentException if not <code>isPackable()</code> (e.g. an error or Nanos precision)
+     */
+    public void append( ISO8601ZtimeStamp timeStamp ) {
+        if ( !timeStamp.isPackable() ) {
+            throw new IllegalArgumentException( "not packable: " + timeStamp );
+        }
+        appendPacked( timeStamp.toPackedLong() );
+    }
+
+    /**
+     * @param packed from <code>toPackedLong()</code> or <code>PackedZtimeStamp.pack(...)</code>
+     */
+    public void appendPacked( long packed ) {
+        if ( size == capacity() ) {
+            grow();
+        }
+        if ( (size != 0) && (packed < getPacked( size - 1 )) ) {
+            sorted = false;
+        }
+        rows.putLong( size++ * Long.BYTES, packed );
+    }
+
+    /**
+     * @throws IndexOutOfBoundsException if the <code>row</code> is not 0 thru <code>size() - 1</code>
+     */
+    public long getPacked( int row ) {
+        return rows.getLong( check( row ) * Long.BYTES );
+    }
+
+    /**
+     * @throws IndexOutOfBoundsException if the <code>row</code> is not 0 thru <code>size() - 1</code>
+     */
+    public ISO8601ZtimeStamp get( int row ) {
+        return ISO8601ZtimeStamp.fromPackedLong( getPacked( row ) );
+    }
+
+    /**
+     * Sort the rows (via a temporary on-heap copy).
+     */
+    public void sort() {
+        if ( !sorted ) {
+            long[] values = new long[size];
+            rows.asLongBuffer().get( values );
+            Arrays.sort( values );
+            rows.asLongBuffer().put( values );
+            sorted = true;
+        }
+    }
+
+    public void clear() {
+        size = 0;
+        sorted = true;
+    }
+
+    /**
+     * @return the first row at or after (by instant) the <code>from</code>, or <code>size()</code> if none
+     * @throws IllegalStateException if not <code>isSorted()</code>
+     */
+    public int firstRowFrom( ISO8601ZtimeStamp from ) {
+        return lowerBound( instantKey( from, true ) );
+    }
+
+    /**
+     * @return the first row after (by instant) the <code>to</code>, or <code>size()</code> if none
+     * @throws IllegalStateException if not <code>isSorted()</code>
+     */
+    public int firstRowAfter( ISO8601ZtimeStamp to ) {
+        return lowerBound( instantKey( to, false ) + 1 );
+    }
+
+    /**
+     * @return the number of rows from thru (inclusive, by instant) to
+     * @throws IllegalStateException if not <code>isSorted()</code>
+     */
+    public int countBetween( ISO8601ZtimeStamp from, ISO8601ZtimeStamp to ) {
+        return Math.max( 0, firstRowAfter( to ) - firstRowFrom( from ) );
+    }
+
+    /**
+     * Feed the (packed) rows from thru (inclusive, by instant) to, in order, to the <code>consumer</code>.
+     *
+     * @return the number of rows fed
+     * @throws IllegalStateException if not <code>isSorted()</code>
+     */
+    public int forEachBetween( ISO8601ZtimeStamp from, ISO8601ZtimeStamp to, LongConsumer consumer ) {
+        int start = firstRowFrom( from );
+        int end = firstRowAfter( to );
+        for ( int row = start; row < end; row++ ) {
+            consumer.accept( rows.getLong( row * Long.BYTES ) );
+        }
+        return Math.max( 0, end - start );
+    }
+
+    /**
+     * @param roundUp true to round a Nanos <code>timeStamp</code> up (rather than truncate it) to the next Micro
+     * @return the packed form, without the precision, of the <code>timeStamp</code>
+     * @throws IllegalArgumentException if the <code>timeStamp</code> is an error
+     */
+    private static long instantKey( ISO8601ZtimeStamp timeStamp, boolean roundUp ) {
+        int partialMicro = 0;
+        if ( !timeStamp.hasError() && (timeStamp.getTimeLength() == TimeLength.Nanos) ) {
+            partialMicro = timeStamp.getNanoOfSecond() % 1000;
+            timeStamp = timeStamp.toMicros();
+        }
+        if ( !timeStamp.isPackable() ) {
+            throw new IllegalArgumentException( "not a range bound: " + timeStamp );
+        }
+        long key = timeStamp.toPackedLong() >>> PRECISION_BITS;
+        return (roundUp && (partialMicro != 0)) ? (key + 1) : key; // Note: micros field has room for 1000000
+    }
+
+    /**
+     * @return the first row whose instant key is at least the <code>key</code>
+     */
+    private int lowerBound( long key ) {
+        if ( !sorted ) {
+            throw new IllegalStateException( "not sorted" );
+        }
+        int low = 0, high = size;
+        while ( low < high ) {
+            int mid = (low + high) >>> 1;
+            if ( (rows.getLong( mid * Long.BYTES ) >>> PRECISION_BITS) < key ) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private int check( int row ) {
+        if ( (row < 0) || (size <= row) ) {
+            throw new IndexOutOfBoundsException( "row " + row + " not in 0 thru " + (size - 1) );
+        }
+        return row;
+    }
+
+    private void grow() {
+        int capacity = capacity();
+        if ( capacity >= (Integer.MAX_VALUE / Long.BYTES) ) {
+            throw new IllegalStateException( "column full at " + capacity + " rows" );
+        }
+        ByteBuffer bigger = allocate( (int)Math.min( Integer.MAX_VALUE / Long.BYTES, capacity * 2L ) );
+        bigger.put( rows.duplicate().clear() ).clear();
+        rows = bigger;
+    }
+
+    private static ByteBuffer allocate( int capacity ) {
+        return ByteBuffer.allocateDirect( capacity * Long.BYTES ).order( ByteOrder.nativeOrder() );
+    }
+}
@@ -0,0 +1,237 @@
+package org.litesoft.utils;
+
+/**
+ * Structured (and lazily rendered) error from mapping an ISO-8601(ish) string into a UTC/Zulu form.
+ * <p>
+ * The <code>Code</code>, the offending <code>Field</code> (if any), and the (zero based) position in the input are
+ * available without any <code>String</code> work; the human-readable message (identical to the original error texts)
+ * and the trimmed & upper-cased input (the "value" of an error) are only built when asked for.
+ * <p>
+ * Note: errors from the general (non-ASCII input) parsing are created from their messages, and have no position (-1).
+ */
+@SuppressWarnings("unused")
+public final class ZtimeStampError {
+    public enum Code {
+        // General:
+        TO_PARSE_WAS_NULL( ISO8601ZtimeStamp.TO_PARSE_WAS_NULL ),
+        TO_PARSE_WAS_EMPTY( ISO8601ZtimeStamp.TO_PARSE_WAS_EMPTY ),
+        TO_PARSE_NO_T( ISO8601ZtimeStamp.TO_PARSE_NO_T ),
+        // Int Fields (Both Date and Time-w/Offset):
+        INT_PARSE_ERROR( ISO8601ZtimeStamp.INT_PARSE_ERROR ),
+        INT_GT_MAX( ISO8601ZtimeStamp.INT_GT_MAX ),
+        INT_LT_MIN( ISO8601ZtimeStamp.INT_LT_MIN ),
+        // Date Specific:
+        DATE_NOT_3_FIELDS( ISO8601ZtimeStamp.DATE_NOT_3_FIELDS ),
+        // Time (w/Offset, and 'Z') specific:
+        TIME_NO_Z_OR_OFFSET( ISO8601ZtimeStamp.TIME_NO_Z_OR_OFFSET ),
+        TIME_STUFF_AFTER_Z( ISO8601ZtimeStamp.TIME_STUFF_AFTER_Z ),
+        TIME_TOO_MANY_OFFSET_COLONS( ISO8601ZtimeStamp.TIME_TOO_MANY_OFFSET_COLONS ),
+        TIME_MULTIPLE_OFFSETS( ISO8601ZtimeStamp.TIME_MULTIPLE_OFFSETS ),
+        TIME_MINUTE_OFFSET_NOT_QUARTER_HOUR( ISO8601ZtimeStamp.TIME_MINUTE_OFFSET_NOT_QUARTER_HOUR ),
+        TIME_GT_3_FIELDS( ISO8601ZtimeStamp.TIME_GT_3_FIELDS ),
+        TIME_FRACTIONAL_SECONDS_TOO_LONG( ISO8601ZtimeStamp.TIME_FRACTIONAL_SECONDS_TOO_LONG ),
+        // Normalization (eliminate offset by adjusting timestamp to Zulu):
+        TIME_NO_MINUTES_TO_ADJUST( ISO8601ZtimeStamp.TIME_NO_MINUTES_TO_ADJUST ),
+        // Roll/wrap Over/Under:
+        DATE_YEAR_ROLLED_GT_9999( ISO8601ZtimeStamp.DATE_YEAR_ROLLED_GT_9999 ),
+        DATE_YEAR_ROLLED_LT_1( ISO8601ZtimeStamp.DATE_YEAR_ROLLED_LT_1 ),
+        // Post normalization:
+        TIME_LENGTH_NO_MATCH( ISO8601ZtimeStamp.TIME_LENGTH_NO_MATCH ),
+        NANOS_NOT_PACKABLE( PackedZtimeStamp.NANOS_NOT_PACKABLE );
+
+        private final String text;
+
+        Code( String text ) {
+            this.text = text;
+        }
+
+        /**
+         * @return the (constant) text that the message starts with (or for the Int codes, contains)
+         */
+        public String getText() {
+            return text;
+        }
+
+        private boolean isInt() {
+            return (this == INT_PARSE_ERROR) || (this == INT_GT_MAX) || (this == INT_LT_MIN);
+        }
+
+        static Code fromMessage( String message ) {
+            for ( Code code : CODES ) {
+                if ( code.isInt() ? message.contains( " -- " + code.text ) : message.startsWith( code.text ) ) {
+                    return code;
+                }
+            }
+            throw new IllegalArgumentException( "unrecognized error message: " + message );
+        }
+    }
+
+    public enum Field {
+        YEAR( "year", "date field" ),
+        MONTH( "month", "date field" ),
+        DAY( "day", "date field" ),
+        HOURS( "hours", "time field" ),
+        MINUTES( "minutes", "time field" ),
+        SECONDS( "seconds", "time field" ),
+        MILLIS( "Second", "millis" ),
+        MICROS( "Second", "micros" ),
+        NANOS( "Second", "nanos" ),
+        OFFSET_HOURS( "hours", "offset" ),
+        OFFSET_MINUTES( "minutes", "offset" );
+
+        private final String what;
+        private final String type;
+
+        Field( String what, String type ) {
+            this.what = what;
+            this.type = type;
+        }
+
+        public String getWhat() {
+            return what;
+        }
+
+        public String getType() {
+            return type;
+        }
+
+        static Field fromMessage( String message ) {
+            for ( Field field : FIELDS ) {
+                if ( message.startsWith( field.what + " " + field.type + " of '" ) ) {
+                    return field;
+                }
+            }
+            return null;
+        }
+    }
+
+    private static final Code[] CODES = Code.values();
+    private static final Field[] FIELDS = Field.values();
+
+    private final Code code;
+    private final Field field;
+    private final int position;
+    // Rendering data:
+    private final String input;
+    private final int from, to; // trimmed input
+    private final int start, end, zeroPad; // offending text
+    private final int detail; // limit, count, or offset
+    // Lazily rendered (benign races, as the results are always the same):
+    private String message;
+    private String value;
+
+    /**
+     * @param input   the text parsed (null when it was null)
+     * @param from    start of the trimmed input
+     * @param to      end of the trimmed input
+     * @param start   start of the offending text
+     * @param end     end of the offending text
+     * @param zeroPad number of '0's that (logically) follow the offending text
+     * @param detail  Code specific: limit (Int codes), count (field codes), or offset minutes
+     */
+    ZtimeStampError( Code code, Field field, int position, String input, int from, int to,
+                     int start, int end, int zeroPad, int detail ) {
+        this.code = code;
+        this.field = field;
+        this.position = position;
+        this.input = input;
+        this.from = from;
+        this.to = to;
+        this.start = start;
+        this.end = end;
+        this.zeroPad = zeroPad;
+        this.detail = detail;
+    }
+
+    private ZtimeStampError( String message, String value ) {
+        this( Code.fromMessage( message ), Field.fromMessage( message ), -1, null, 0, 0, 0, 0, 0, 0 );
+        this.message = message;
+        this.value = value;
+    }
+
+    /**
+     * Create from an (already rendered) error message.
+     *
+     * @param message error message
+     * @param value   of the erroring instance (the trimmed & upper-cased input)
+     * @throws IllegalArgumentException if the <code>message</code> does not match any Code
+     */
+    static ZtimeStampError fromMessage( String message, String value ) {
+        return new ZtimeStampError( message, value );
+    }
+
+    /**
+     * Create from just a <code>Code</code> (e.g. decoded from a binary form), whose message is the Code's text, and which
+     * has no value (nor field or position).
+     */
+    static ZtimeStampError fromCode( Code code ) {
+        ZtimeStampError error = new ZtimeStampError( code, null, -1, null, 0, 0, 0, 0, 0, 0 );
+        error.message = code.text;
+        return error;
+    }
+
+    public Code getCode() {
+        return code;
+    }
+
+    /**
+     * @return the offending field, or null if the error is not about a specific field
+     */
+    public Field getField() {
+        return field;
+    }
+
+    /**
+     * @return the zero based position, in the input, of the offending text (or -1 if unknown)
+     */
+    public int getPosition() {
+        return position;
+    }
+
+    /**
+     * @return the human-readable message (rendered on first call)
+     */
+    public String getMessage() {
+        String message = this.message;
+        if ( message == null ) {
+            this.message = message = render();
+        }
+        return message;
+    }
+
+    /**
+     * @return the trimmed & upper-cased input (built on first call), or null if the input was null
+     */
+    public String getValue() {
+        String value = this.value;
+        if ( (value == null) && (input != null) ) {
+            this.value = value = upper( from, to );
+        }
+        return value;
+    }
+
+    @Override
+    public String toString() {
+        return getMessage();
+    }
+
+    private String render() {
+        return switch ( code ) {
+            case INT_PARSE_ERROR, INT_GT_MAX, INT_LT_MIN -> field.what + " " + field.type + " of '" +
+                                                            (upper( start, end ) + "0".repeat( zeroPad )).trim() +
+                                                            "' -- " + code.text +
+                                                            ((code == Code.INT_PARSE_ERROR) ? "" : (" of " + detail));
+            case DATE_NOT_3_FIELDS, TIME_GT_3_FIELDS -> code.text + ", but got " + detail;
+            case TIME_STUFF_AFTER_Z -> code.text + ", what is '" + upper( start, end ) + "'";
+            case TIME_TOO_MANY_OFFSET_COLONS -> code.text + " in '" + upper( start, end ) + "'";
+            case TIME_MULTIPLE_OFFSETS -> code.text + " in: " + upper( start, end );
+            case TIME_MINUTE_OFFSET_NOT_QUARTER_HOUR -> code.text + ", but was " + detail;
+            case TIME_NO_MINUTES_TO_ADJUST -> code.text + " for " + detail + " offset Minutes";
+            default -> code.text;
+        };
+    }
+
+    private String upper( int start, int end ) {
+        return input.substring( start, end ).toUpperCase();
+    }
+}
@@ -0,0 +1,346 @@
+package org.litesoft.utils;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+import org.litesoft.utils.ISO8601ZtimeStamp.TimeLength;
+
+/**
+ * Normalizes (see <code>ISO8601ZtimeStamp.fromString</code>) a delimited timestamp field on each line of a (newline
+ * delimited) file, parsing directly from the memory mapped bytes, i.e. without creating a <code>String</code> per line.
+ * <p>
+ * Lines with a normalized timestamp field are written to the output, with the field (including any surrounding white
+ * space) replaced by the normalized value, and everything else (including a "\r\n" line end) unchanged.
+ * <p>
+ * Rejected lines are written to the rejects, as the line followed by a tab and the error (and a "\n").
+ * <p>
+ * The parallel forms split each window into line aligned chunks which are normalized on a <code>ForkJoinPool</code>,
+ * and then written in the original order (so each window's output is held in memory until written).
+ * <p>
+ * Note: the file is mapped in windows (default 256MB), and no line may be longer than a window.
+ */
+@SuppressWarnings("unused")
+public class ZtimeStampFileNormalizer {
+    public static final String NO_TIMESTAMP_FIELD = "no timestamp field";
+
+    static final int DEFAULT_WINDOW_SIZE = 1 << 28;
+    static final int OUTPUT_BUFFER_SIZE = 1 << 16;
+    static final int MIN_CHUNK_SIZE = 1 << 16;
+    static final int CHUNKS_PER_THREAD = 4;
+
+    private final int fieldIndex;
+    private final byte delimiter;
+    private final TimeLength target;
+    private final int windowSize;
+
+    /**
+     * @param fieldIndex zero based index of the timestamp field
+     * @param delimiter  (ASCII) between the fields
+     * @param target     precision to adjust to (e.g. <code>Millis</code> for a <code>toMillis()</code>), null for as parsed
+     * @throws IllegalArgumentException if <code>fieldIndex</code> is negative, or <code>delimiter</code> is not ASCII or is a newline
+     */
+    public ZtimeStampFileNormalizer( int fieldIndex, char delimiter, TimeLength target ) {
+        this( fieldIndex, delimiter, target, DEFAULT_WINDOW_SIZE );
+    }
+
+    ZtimeStampFileNormalizer( int fieldIndex, char delimiter, TimeLength target, int windowSize ) {
+        if ( fieldIndex < 0 ) {
+            throw new IllegalArgumentException( "expected fieldIndex to be non-negative, but got: " + fieldIndex );
+        }
+        if ( (127 < delimiter) || (delimiter == '\n') ) {
+            throw new IllegalArgumentException( "expected an ASCII (non-newline) delimiter, but got: '" + delimiter + "'" );
+        }
+        this.fieldIndex = fieldIndex;
+        this.delimiter = (byte)delimiter;
+        this.target = target;
+        this.windowSize = windowSize;
+    }
+
+    public int getFieldIndex() {
+        return fieldIndex;
+    }
+
+    public char getDelimiter() {
+        return (char)delimiter;
+    }
+
+    public TimeLength getTarget() {
+        return target;
+    }
+
+    /**
+     * Normalize the <code>in</code> file into the <code>out</code> file, and the rejected lines into the <code>rejects</code> file
+     * (both created or truncated).
+     */
+    public Summary normalize( Path in, Path out, Path rejects ) throws IOException {
+        try ( FileChannel inChannel = FileChannel.open( in, StandardOpenOption.READ );
+              FileChannel outChannel = openForWrite( out );
+              FileChannel rejectsChannel = openForWrite( rejects ) ) {
+            return normalize( inChannel, outChannel, rejectsChannel );
+        }
+    }
+
+    /**
+     * Normalize (from its current size) the <code>in</code> file channel to the <code>out</code> channel, and the
+     * rejected lines to the <code>rejects</code> channel (the channels are NOT closed).
+     */
+    public Summary normalize( FileChannel in, WritableByteChannel out, WritableByteChannel rejects ) throws IOException {
+        ByteOutput normalized = new ByteOutput( out, OUTPUT_BUFFER_SIZE );
+        ByteOutput rejected = new ByteOutput( rejects, OUTPUT_BUFFER_SIZE );
+        Summary summary = new Summary();
+        Lines lines = new Lines( normalized, rejected, summary );
+        long size = in.size();
+        for ( long position = 0; position < size; ) {
+            long length = Math.min( windowSize, size - position );
+            boolean lastWindow = (position + length) == size;
+            ByteBuffer window = in.map( FileChannel.MapMode.READ_ONLY, position, length );
+            int consumed = lines.process( window, 0, (int)length, lastWindow );
+            if ( consumed == 0 ) {
+                throw new IOException( "line (at " + position + ") longer than the window size (" + windowSize + ")" );
+            }
+            position += consumed;
+        }
+        normalized.flush();
+        rejected.flush();
+        return summary;
+    }
+
+    /**
+     * Normalize, in parallel with the given <code>parallelism</code>, the <code>in</code> file into the <code>out</code>
+     * file, and the rejected lines into the <code>rejects</code> file (both created or truncated).
+     */
+    public Summary normalize( Path in, Path out, Path rejects, int parallelism ) throws IOException {
+        ForkJoinPool pool = new ForkJoinPool( parallelism );
+        try ( FileChannel inChannel = FileChannel.open( in, StandardOpenOption.READ );
+              FileChannel outChannel = openForWrite( out );
+              FileChannel rejectsChannel = openForWrite( rejects ) ) {
+            return normalize( inChannel, outChannel, rejectsChannel, pool );
+        }
+        finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Normalize, in parallel on the <code>pool</code>, (from its current size) the <code>in</code> file channel to the
+     * <code>out</code> channel, and the rejected lines to the <code>rejects</code> channel (the channels are NOT closed).
+     */
+    public Summary normalize( FileChannel in, WritableByteChannel out, WritableByteChannel rejects, ForkJoinPool pool )
+            throws IOException {
+        ByteOutput normalized = new ByteOutput( out, OUTPUT_BUFFER_SIZE );
+        ByteOutput rejected = new ByteOutput( rejects, OUTPUT_BUFFER_SIZE );
+        Summary summary = new Summary();
+        long size = in.size();
+        for ( long position = 0; position < size; ) {
+            long length = Math.min( windowSize, size - position );
+            boolean lastWindow = (position + length) == size;
+            ByteBuffer window = in.map( FileChannel.MapMode.READ_ONLY, position, length );
+            int end = lastWindow ? (int)length : (lastIndexOf( window, (byte)'\n', (int)length ) + 1);
+            if ( end == 0 ) {
+                throw new IOException( "line (at " + position + ") longer than the window size (" + windowSize + ")" );
+            }
+            int chunkSize = Math.max( Math.min( MIN_CHUNK_SIZE, windowSize / CHUNKS_PER_THREAD ),
+                                      end / (pool.getParallelism() * CHUNKS_PER_THREAD) );
+            List<Chunk> chunks;
+            try {
+                chunks = pool.invoke( new Chunk( window, 0, end, chunkSize ) );
+            }
+            catch ( UncheckedIOException e ) {
+                throw e.getCause();
+            }
+            for ( Chunk chunk : chunks ) {
+                normalized.put( chunk.normalized.collected() );
+                rejected.put( chunk.rejected.collected() );
+                summary.add( chunk.summary );
+            }
+            position += end;
+        }
+        normalized.flush();
+        rejected.flush();
+        return summary;
+    }
+
+    /**
+     * Line aligned chunk of a window, that is either split (in two) or normalized into its own (in memory) outputs.
+     */
+    @SuppressWarnings("serial") // never serialized
+    private class Chunk extends RecursiveTask<List<Chunk>> {
+        private final ByteBuffer window;
+        private final int start, end, chunkSize;
+        private ByteOutput normalized, rejected;
+        private Summary summary;
+
+        Chunk( ByteBuffer window, int start, int end, int chunkSize ) {
+            this.window = window;
+            this.start = start;
+            this.end = end;
+            this.chunkSize = chunkSize;
+        }
+
+        @Override
+        protected List<Chunk> compute() {
+            if ( chunkSize < (end - start) ) {
+                int split = indexOf( window, (byte)'\n', start + ((end - start) / 2), end ) + 1;
+                if ( (0 < split) && (split < end) ) {
+                    Chunk left = new Chunk( window, start, split, chunkSize );
+                    left.fork();
+                    List<Chunk> right = new Chunk( window, split, end, chunkSize ).compute();
+                    List<Chunk> chunks = left.join();
+                    chunks.addAll( right );
+                    return chunks;
+                }
+            }
+            int length = end - start;
+            normalized = new ByteOutput( null, length + (length / 8) + 64 );
+            rejected = new ByteOutput( null, 1024 );
+            summary = new Summary();
+            try {
+                new Lines( normalized, rejected, summary ).process( window, start, end, true );
+            }
+            catch ( IOException e ) { // Not expected, as the outputs are in memory
+                throw new UncheckedIOException( e );
+            }
+            List<Chunk> chunks = new ArrayList<>();
+            chunks.add( this );
+            return chunks;
+        }
+    }
+
+    private static FileChannel openForWrite( Path path ) throws IOException {
+        return FileChannel.open( path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                                 StandardOpenOption.TRUNCATE_EXISTING );
+    }
+
+    /**
+     * Line counts from a <code>normalize</code>.
+     */
+    public static final class Summary {
+        private long lines;
+        private long rejected;
+
+        public long getLines() {
+            return lines;
+        }
+
+        public long getNormalized() {
+            return lines - rejected;
+        }
+
+        public long getRejected() {
+            return rejected;
+        }
+
+        void add( Summary them ) {
+            lines += them.lines;
+            rejected += them.rejected;
+        }
+
+        @Override
+        public String toString() {
+            return "lines: " + lines + ", rejected: " + rejected;
+        }
+    }
+
+    /**
+     * The per line processing, NOT thread safe.
+     */
+    class Lines {
+        private final ISO8601ZtimeStampParser parser = new ISO8601ZtimeStampParser();
+        private final ByteSequence field = new ByteSequence();
+        private final byte[] formatted = new byte[ZtimeStampFormatter.MAX_LENGTH];
+        private final ByteOutput normalized;
+        private final ByteOutput rejected;
+        private final Summary summary;
+
+        Lines( ByteOutput normalized, ByteOutput rejected, Summary summary ) {
+            this.normalized = normalized;
+            this.rejected = rejected;
+            this.summary = summary;
+        }
+
+        /**
+         * Process the lines in the <code>buffer</code> from <code>start</code> to <code>end</code>.
+         *
+         * @param last true if <code>end</code> is the end of the input (so any final line does not need a newline)
+         * @return the offset (from <code>start</code>) of the first unprocessed byte (the start of an incomplete line)
+         */
+        int process( ByteBuffer buffer, int start, int end, boolean last ) throws IOException {
+            int lineStart = start;
+            while ( lineStart < end ) {
+                int lineEnd = indexOf( buffer, (byte)'\n', lineStart, end );
+                int nextLineStart = lineEnd + 1;
+                if ( lineEnd == -1 ) {
+                    if ( !last ) {
+                        break;
+                    }
+                    lineEnd = nextLineStart = end;
+                }
+                if ( (lineStart < lineEnd) && (buffer.get( lineEnd - 1 ) == '\r') ) {
+                    lineEnd--;
+                }
+                line( buffer, lineStart, lineEnd, nextLineStart );
+                lineStart = nextLineStart;
+            }
+            return lineStart - start;
+        }
+
+        private void line( ByteBuffer buffer, int lineStart, int lineEnd, int nextLineStart ) throws IOException {
+            summary.lines++;
+            int fieldStart = lineStart;
+            for ( int i = 0; (i < fieldIndex) && (fieldStart != -1); i++ ) {
+                fieldStart = indexOf( buffer, delimiter, fieldStart, lineEnd );
+                fieldStart = (fieldStart == -1) ? -1 : (fieldStart + 1);
+            }
+            if ( fieldStart == -1 ) {
+                reject( buffer, lineStart, lineEnd, NO_TIMESTAMP_FIELD );
+                return;
+            }
+            int fieldEnd = indexOf( buffer, delimiter, fieldStart, lineEnd );
+            fieldEnd = (fieldEnd == -1) ? lineEnd : fieldEnd;
+            if ( !parser.load( field.set( buffer, fieldStart, fieldEnd - fieldStart ) ) ) {
+                reject( buffer, lineStart, lineEnd, parser.getError() );
+                return;
+            }
+            normalized.put( buffer, lineStart, fieldStart );
+            normalized.put( formatted, 0, parser.formatTo( formatted, 0, target ) );
+            normalized.put( buffer, fieldEnd, nextLineStart );
+        }
+
+        private void reject( ByteBuffer buffer, int lineStart, int lineEnd, String error ) throws IOException {
+            summary.rejected++;
+            rejected.put( buffer, lineStart, lineEnd );
+            rejected.put( (byte)'\t' );
+            byte[] errorBytes = error.getBytes( StandardCharsets.UTF_8 );
+            rejected.put( errorBytes, 0, errorBytes.length );
+            rejected.put( (byte)'\n' );
+        }
+    }
+
+    private static int lastIndexOf( ByteBuffer buffer, byte b, int end ) {
+        for ( int i = end; 0 <= --i; ) {
+            if ( buffer.get( i ) == b ) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static int indexOf( ByteBuffer buffer, byte b, int start, int end ) {
+        for ( int i = start; i < end; i++ ) {
+            if ( buffer.get( i ) == b ) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,181 @@
+package org.litesoft.utils;
+
+import org.litesoft.utils.ISO8601ZtimeStamp.TimeLength;
+
+/**
+ * Table driven formatter of the normalized (Zulu) form, e.g. "yyyy-mm-ddThh:mm:ss.fffffffffZ", into caller supplied
+ * (and hence reusable) <code>byte[]</code> (ASCII) or <code>char[]</code> buffers, with no <code>String</code> in between.
+ * <p>
+ * Digits are emitted two at a time from 100 entry lookup tables.  The buffer must have room for the
+ * <code>precision.zLessLength() + 1</code> (at most <code>MAX_LENGTH</code>) chars/bytes.
+ * <p>
+ * Note: the fields are NOT validated, they are expected to already be in range (e.g. from a parse or a packed value)!
+ */
+@SuppressWarnings("unused")
+public final class ZtimeStampFormatter {
+    public static final int MAX_LENGTH = TimeLength.Nanos.zLessLength() + 1; // "yyyy-mm-ddT00:00:00.000000000Z"
+
+    private static final byte[] TENS = new byte[100];
+    private static final byte[] ONES = new byte[100];
+
+    static {
+        for ( int i = 0; i < 100; i++ ) {
+            TENS[i] = (byte)('0' + (i / 10));
+            ONES[i] = (byte)('0' + (i % 10));
+        }
+    }
+
+    private ZtimeStampFormatter() {
+    }
+
+    /**
+     * Format the fields of a normalized (Zulu) timestamp into the <code>b</code>uffer (as ASCII) at <code>at</code>.
+     *
+     * @param nanoOfSecond fraction of the second (0-999999999), only the digits within the <code>precision</code> are written
+     * @param precision    of the output (determines which fields are written)
+     * @return the offset just past the written 'Z'
+     */
+    public static int format( byte[] b, int at, int year, int month, int day, int hour, int minute, int second,
+                              int nanoOfSecond, TimeLength precision ) {
+        int hundreds = year / 100;
+        b[at] = TENS[hundreds];
+        b[at + 1] = ONES[hundreds];
+        at = two( b, at + 2, year - (hundreds * 100) );
+        b[at] = '-';
+        at = two( b, at + 1, month );
+        b[at] = '-';
+        at = two( b, at + 1, day );
+        b[at] = 'T';
+        at = two( b, at + 1, hour );
+        if ( precision != TimeLength.Hour ) {
+            b[at] = ':';
+            at = two( b, at + 1, minute );
+            if ( precision != TimeLength.Minute ) {
+                b[at] = ':';
+                at = two( b, at + 1, second );
+                if ( precision != TimeLength.Second ) {
+                    b[at++] = '.';
+                    int millis = nanoOfSecond / 1000000;
+                    at = three( b, at, millis );
+                    if ( precision != TimeLength.Millis ) {
+                        int micros = nanoOfSecond / 1000;
+                        at = three( b, at, micros - (millis * 1000) );
+                        if ( precision != TimeLength.Micros ) {
+                            at = three( b, at, nanoOfSecond - (micros * 1000) );
+                        }
+                    }
+                }
+            }
+        }
+        b[at++] = 'Z';
+        return at;
+    }
+
+    /**
+     * Format the fields of a normalized (Zulu) timestamp into the <code>c</code>har buffer at <code>at</code>.
+     *
+     * @param nanoOfSecond fraction of the second (0-999999999), only the digits within the <code>precision</code> are written
+     * @param precision    of the output (determines which fields are written)
+     * @return the offset just past the written 'Z'
+     */
+    public static int format( char[] c, int at, int year, int month, int day, int hour, int minute, int second,
+                              int nanoOfSecond, TimeLength precision ) {
+        int hundreds = year / 100;
+        c[at] = (char)TENS[hundreds];
+        c[at + 1] = (char)ONES[hundreds];
+        at = two( c, at + 2, year - (hundreds * 100) );
+        c[at] = '-';
+        at = two( c, at + 1, month );
+        c[at] = '-';
+        at = two( c, at + 1, day );
+        c[at] = 'T';
+        at = two( c, at + 1, hour );
+        if ( precision != TimeLength.Hour ) {
+            c[at] = ':';
+            at = two( c, at + 1, minute );
+            if ( precision != TimeLength.Minute ) {
+                c[at] = ':';
+                at = two( c, at + 1, second );
+                if ( precision != TimeLength.Second ) {
+                    c[at++] = '.';
+                    int millis = nanoOfSecond / 1000000;
+                    at = three( c, at, millis );
+                    if ( precision != TimeLength.Millis ) {
+                        int micros = nanoOfSecond / 1000;
+                        at = three( c, at, micros - (millis * 1000) );
+                        if ( precision != TimeLength.Micros ) {
+                            at = three( c, at, nanoOfSecond - (micros * 1000) );
+                        }
+                    }
+                }
+            }
+        }
+        c[at++] = 'Z';
+        return at;
+    }
+
+    /**
+     * Format a <code>PackedZtimeStamp</code> (with its precision) into the <code>b</code>uffer (as ASCII) at <code>at</code>.
+     *
+     * @return the offset just past the written 'Z'
+     */
+    public static int formatPacked( long packed, byte[] b, int at ) {
+        return format( b, at, PackedZtimeStamp.getYear( packed ), PackedZtimeStamp.getMonth( packed ),
+                       PackedZtimeStamp.getDay( packed ), PackedZtimeStamp.getHour( packed ),
+                       PackedZtimeStamp.getMinute( packed ), PackedZtimeStamp.getSecond( packed ),
+                       PackedZtimeStamp.getMicros( packed ) * 1000, PackedZtimeStamp.getTimeLength( packed ) );
+    }
+
+    /**
+     * Format a <code>PackedZtimeStamp</code> (with its precision) into the <code>c</code>har buffer at <code>at</code>.
+     *
+     * @return the offset just past the written 'Z'
+     */
+    public static int formatPacked( long packed, char[] c, int at ) {
+        return format( c, at, PackedZtimeStamp.getYear( packed ), PackedZtimeStamp.getMonth( packed ),
+                       PackedZtimeStamp.getDay( packed ), PackedZtimeStamp.getHour( packed ),
+                       PackedZtimeStamp.getMinute( packed ), PackedZtimeStamp.getSecond( packed ),
+                       PackedZtimeStamp.getMicros( packed ) * 1000, PackedZtimeStamp.getTimeLength( packed ) );
+    }
+
+    /**
+     * Append the <code>value</code> as exactly <code>count</code> (1-4) zero padded digits.
+     */
+    static StringBuilder append( StringBuilder sb, int value, int count ) {
+        if ( count > 2 ) {
+            int hundreds = value / 100;
+            if ( count > 3 ) {
+                sb.append( (char)TENS[hundreds] );
+            }
+            sb.append( (char)ONES[hundreds] );
+            value -= hundreds * 100;
+        } else if ( count == 1 ) {
+            return sb.append( (char)ONES[value] );
+        }
+        return sb.append( (char)TENS[value] ).append( (char)ONES[value] );
+    }
+
+    private static int two( byte[] b, int at, int value ) {
+        b[at] = TENS[value];
+        b[at + 1] = ONES[value];
+        return at + 2;
+    }
+
+    private static int three( byte[] b, int at, int value ) {
+        int hundreds = value / 100;
+        b[at] = ONES[hundreds];
+        return two( b, at + 1, value - (hundreds * 100) );
+    }
+
+    private static int two( char[] c, int at, int value ) {
+        c[at] = (char)TENS[value];
+        c[at + 1] = (char)ONES[value];
+        return at + 2;
+    }
+
+    private static int three( char[] c, int at, int value ) {
+        int hundreds = value / 100;
+        c[at] = (char)ONES[hundreds];
+        return two( c, at + 1, value - (hundreds * 100) );
+    }
+}
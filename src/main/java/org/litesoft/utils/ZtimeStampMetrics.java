@@ -0,0 +1,199 @@
+package org.litesoft.utils;
+
+import java.util.concurrent.atomic.LongAdder;
+
+import org.litesoft.utils.ZtimeStampError.Code;
+
+/**
+ * Optional instrumentation of the parse/normalize path (<code>ISO8601ZtimeStamp.fromString</code>, <code>validate</code>,
+ * the <code>normalizeAll</code>s, the file normalizer, and any <code>ISO8601ZtimeStampParser</code>).
+ * <p>
+ * Counts the successes, the errors (by <code>Code</code>), the successes that had (and applied) an offset vs. those that
+ * were already Zulu, and the day (and year) roll overs/unders caused by applying an offset; plus (optionally) a
+ * latency histogram with power of 2 (nanosecond) buckets.
+ * <p>
+ * All counters are <code>LongAdder</code>s, so many parsing threads do not contend.  Nothing is recorded (and the only
+ * cost is one volatile read per parse) unless an instance is <code>install</code>ed.
+ * <p>
+ * Note: input with non-ASCII characters is first normalized by the original parsing, so it always counts as Zulu.
+ */
+@SuppressWarnings("unused")
+public final class ZtimeStampMetrics {
+    public static final int LATENCY_BUCKETS = 64; // bucket n: latencies of 2^(n-1) thru (2^n)-1 nanos (bucket 0: 0)
+
+    private static final Code[] CODES = Code.values();
+
+    private static volatile ZtimeStampMetrics installed;
+
+    private final boolean recordLatency;
+    private final LongAdder successes = new LongAdder();
+    private final LongAdder[] errors = adders( CODES.length );
+    private final LongAdder offsets = new LongAdder();
+    private final LongAdder zulus = new LongAdder();
+    private final LongAdder dayRollOvers = new LongAdder();
+    private final LongAdder yearRollOvers = new LongAdder();
+    private final LongAdder[] latencies;
+
+    /**
+     * @param recordLatency true to also time each parse (costs two <code>System.nanoTime()</code> calls per parse)
+     */
+    public ZtimeStampMetrics( boolean recordLatency ) {
+        this.recordLatency = recordLatency;
+        latencies = recordLatency ? adders( LATENCY_BUCKETS ) : null;
+    }
+
+    /**
+     * Install the <code>metrics</code> (replacing any previously installed ones) for all parsing threads.
+     *
+     * @param metrics to record into, or null to stop recording
+     */
+    public static void install( ZtimeStampMetrics metrics ) {
+        installed = metrics;
+    }
+
+    /**
+     * @return the installed metrics, or null if none
+     */
+    public static ZtimeStampMetrics installed() {
+        return installed;
+    }
+
+    public boolean isRecordingLatency() {
+        return recordLatency;
+    }
+
+    public long getSuccesses() {
+        return successes.sum();
+    }
+
+    /**
+     * @return the total of the errors (of all Codes)
+     */
+    public long getErrors() {
+        long total = 0;
+        for ( LongAdder adder : errors ) {
+            total += adder.sum();
+        }
+        return total;
+    }
+
+    public long getErrors( Code code ) {
+        return errors[code.ordinal()].sum();
+    }
+
+    /**
+     * @return the number of successes that had a (non-zero) offset, which was applied
+     */
+    public long getOffsets() {
+        return offsets.sum();
+    }
+
+    /**
+     * @return the number of successes that were already Zulu (incl. zero offsets, and offsets ignored after the 'Z')
+     */
+    public long getZulus() {
+        return zulus.sum();
+    }
+
+    /**
+     * @return the number of successes whose date was changed by applying their offset (includes the year roll overs)
+     */
+    public long getDayRollOvers() {
+        return dayRollOvers.sum();
+    }
+
+    /**
+     * @return the number of successes whose year was changed by applying their offset
+     */
+    public long getYearRollOvers() {
+        return yearRollOvers.sum();
+    }
+
+    /**
+     * @param bucket 0 thru <code>LATENCY_BUCKETS - 1</code>
+     * @return the number of parses with a latency (in nanos) of 2^(bucket-1) thru (2^bucket)-1, or 0 if not recording
+     */
+    public long getLatencyCount( int bucket ) {
+        return recordLatency ? latencies[bucket].sum() : 0;
+    }
+
+    /**
+     * @param percentile 0.0 thru 100.0
+     * @return the (exclusive) upper bound, in nanos, of the bucket holding the <code>percentile</code>, or 0 if nothing was timed
+     */
+    public long getLatencyPercentile( double percentile ) {
+        if ( !recordLatency ) {
+            return 0;
+        }
+        long[] counts = new long[LATENCY_BUCKETS];
+        long total = 0;
+        for ( int i = 0; i < LATENCY_BUCKETS; i++ ) {
+            total += (counts[i] = latencies[i].sum());
+        }
+        long rank = (long)Math.ceil( (total * Math.min( 100.0, Math.max( 0.0, percentile ) )) / 100.0 );
+        long seen = 0;
+        for ( int i = 0; i < LATENCY_BUCKETS; i++ ) {
+            seen += counts[i];
+            if ( (seen >= rank) && (counts[i] != 0) ) {
+                return (i < 63) ? (1L << i) : Long.MAX_VALUE;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Zero all the counters (not atomic with respect to concurrent recording).
+     */
+    public void reset() {
+        successes.reset();
+        for ( LongAdder adder : errors ) {
+            adder.reset();
+        }
+        offsets.reset();
+        zulus.reset();
+        dayRollOvers.reset();
+        yearRollOvers.reset();
+        if ( recordLatency ) {
+            for ( LongAdder adder : latencies ) {
+                adder.reset();
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "successes: " + getSuccesses() + " (offsets: " + getOffsets() + ", zulus: " + getZulus()
+               + ", day roll overs: " + getDayRollOvers() + ", year roll overs: " + getYearRollOvers()
+               + "), errors: " + getErrors();
+    }
+
+    /**
+     * @param rollOver 0 for none, 1 for a day (or month), 2 for a year
+     */
+    void recordSuccess( boolean offset, int rollOver ) {
+        successes.increment();
+        (offset ? offsets : zulus).increment();
+        if ( rollOver != 0 ) {
+            dayRollOvers.increment();
+            if ( rollOver == 2 ) {
+                yearRollOvers.increment();
+            }
+        }
+    }
+
+    void recordError( Code code ) {
+        errors[code.ordinal()].increment();
+    }
+
+    void recordLatency( long nanos ) {
+        latencies[64 - Long.numberOfLeadingZeros( Math.max( 0, nanos ) )].increment();
+    }
+
+    private static LongAdder[] adders( int count ) {
+        LongAdder[] adders = new LongAdder[count];
+        for ( int i = 0; i < count; i++ ) {
+            adders[i] = new LongAdder();
+        }
+        return adders;
+    }
+}
@@ -0,0 +1,92 @@
+package org.litesoft.utils;
+
+/**
+ * Precomputed table of the (raw) text of all the legal offsets, in their common forms: a sign, 1 or 2 hour digits
+ * (0-14), and optionally a colon and 1 or 2 minute digits (0, 15, 30, or 45), e.g. "+05:30", "-7", or "+0:0".
+ * <p>
+ * A lookup packs the (at most 6 ASCII) chars into a <code>long</code> and probes a small open addressing table, so
+ * feeds with a few dozen time zones avoid parsing (and validating) their offsets every time.  Anything else (e.g. with
+ * white space, or illegal) is not in the table, and is left to the regular offset parsing.
+ */
+final class ZtimeStampOffsets {
+    static final int MISS = Integer.MIN_VALUE;
+
+    private static final int MAX_LENGTH = 6; // "+hh:mm"
+    private static final int TABLE_BITS = 10; // 1024 slots for 2 * 25 * 6 = 300 entries
+    private static final long[] KEYS = new long[1 << TABLE_BITS]; // 0 is empty (no key is 0)
+    private static final int[] VALUES = new int[1 << TABLE_BITS];
+
+    static {
+        for ( char sign : new char[]{'+', '-'} ) {
+            for ( int hours = 0; hours <= 14; hours++ ) {
+                for ( String hoursText : (hours < 10) ? new String[]{"" + hours, "0" + hours} : new String[]{"" + hours} ) {
+                    add( sign + hoursText, sign, hours, 0 );
+                    for ( String minutesText : new String[]{"0", "00", "15", "30", "45"} ) {
+                        add( sign + hoursText + ":" + minutesText, sign, hours, Integer.parseInt( minutesText ) );
+                    }
+                }
+            }
+        }
+    }
+
+    private ZtimeStampOffsets() {
+    }
+
+    /**
+     * @return the (signed) offset (see <code>hours</code> & <code>minutes</code>) of the <code>text</code> from
+     * <code>start</code> to <code>end</code>, or <code>MISS</code> if not in the table
+     */
+    static int lookup( CharSequence text, int start, int end ) {
+        int length = end - start;
+        if ( (length < 2) || (MAX_LENGTH < length) ) {
+            return MISS;
+        }
+        long key = 0;
+        for ( int i = start; i < end; i++ ) {
+            char c = text.charAt( i );
+            if ( c > 127 ) {
+                return MISS;
+            }
+            key = (key << 8) | c;
+        }
+        for ( int slot = slot( key ); KEYS[slot] != 0; slot = (slot + 1) & (KEYS.length - 1) ) {
+            if ( KEYS[slot] == key ) {
+                return VALUES[slot];
+            }
+        }
+        return MISS;
+    }
+
+    /**
+     * @param offset from <code>lookup</code> (not a <code>MISS</code>)
+     * @return the signed offset hours
+     */
+    static int hours( int offset ) {
+        return offset >> 8;
+    }
+
+    /**
+     * @param offset from <code>lookup</code> (not a <code>MISS</code>)
+     * @return the signed offset minutes
+     */
+    static int minutes( int offset ) {
+        return (byte)offset;
+    }
+
+    private static void add( String text, char sign, int hours, int minutes ) {
+        long key = 0;
+        for ( int i = 0; i < text.length(); i++ ) {
+            key = (key << 8) | text.charAt( i );
+        }
+        int slot = slot( key );
+        while ( KEYS[slot] != 0 ) {
+            slot = (slot + 1) & (KEYS.length - 1);
+        }
+        KEYS[slot] = key;
+        VALUES[slot] = (sign == '-') ? (((-hours) << 8) | ((-minutes) & 0xFF)) : ((hours << 8) | minutes);
+    }
+
+    private static int slot( long key ) {
+        return (int)((key * 0x9E3779B97F4A7C15L) >>> (64 - TABLE_BITS));
+    }
+}
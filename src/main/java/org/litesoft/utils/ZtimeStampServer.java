@@ -0,0 +1,319 @@
+package org.litesoft.utils;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+
+import org.litesoft.utils.ISO8601ZtimeStamp.TimeLength;
+import org.litesoft.utils.ZtimeStampError.Code;
+
+/**
+ * Small embeddable (or stand-alone, see <code>main</code>) server of a newline delimited line protocol, so that
+ * non-JVM components can normalize timestamps (as if by <code>ISO8601ZtimeStamp.fromString</code>) without paying for a
+ * JVM start per file.
+ * <p>
+ * Each request line (a raw timestamp, a trailing "\r" is ignored) gets exactly one response line (in order): the
+ * normalized value, OR "ERROR " followed by the <code>ZtimeStampError.Code</code> name (or <code>LINE_TOO_LONG</code>
+ * for a line longer than 64KB).
+ * <p>
+ * Connections stay open (keep-alive) until the client closes them, and requests may be pipelined: the lines are parsed
+ * in place from the read buffer, and the responses to all the lines of a read are written together.
+ * <p>
+ * Note: each connection is served by its own (daemon) thread; connections beyond the maximum (by default
+ * <code>MAX_CONNECTIONS</code>) are answered with "ERROR TOO_MANY_CONNECTIONS" and closed.
+ */
+@SuppressWarnings("unused")
+public final class ZtimeStampServer implements AutoCloseable {
+    public static final String ERROR_PREFIX = "ERROR ";
+    public static final String LINE_TOO_LONG = "LINE_TOO_LONG";
+    public static final String TOO_MANY_CONNECTIONS = "TOO_MANY_CONNECTIONS";
+    public static final int MAX_CONNECTIONS = 256;
+
+    static final int BUFFER_SIZE = 1 << 16;
+    static final long MAX_ACCEPT_BACK_OFF_MILLIS = 1000;
+
+    private static final byte[][] ERROR_LINES = errorLines();
+    private static final byte[] LINE_TOO_LONG_LINE = (ERROR_PREFIX + LINE_TOO_LONG + "\n").getBytes( StandardCharsets.US_ASCII );
+    private static final byte[] TOO_MANY_CONNECTIONS_LINE = (ERROR_PREFIX + TOO_MANY_CONNECTIONS + "\n").getBytes( StandardCharsets.US_ASCII );
+
+    private final ServerSocketChannel server;
+    private final TimeLength target;
+    private final int maxConnections;
+    private final Semaphore permits;
+    private final ExecutorService connections = Executors.newCachedThreadPool( r -> {
+        Thread thread = new Thread( r, "ZtimeStampServer-connection" );
+        thread.setDaemon( true );
+        return thread;
+    } );
+    private final Set<SocketChannel> open = ConcurrentHashMap.newKeySet();
+    private final Thread acceptor;
+
+    private ZtimeStampServer( ServerSocketChannel server, TimeLength target, int maxConnections ) {
+        this.server = server;
+        this.target = target;
+        this.maxConnections = maxConnections;
+        permits = new Semaphore( maxConnections );
+        acceptor = new Thread( this::accept, "ZtimeStampServer-acceptor" );
+        acceptor.setDaemon( true );
+        acceptor.start();
+    }
+
+    /**
+     * Start a server on the loopback address.
+     *
+     * @param port   to listen on, 0 for any free port (see <code>getAddress()</code>)
+     * @param target precision to adjust to (e.g. <code>Millis</code> for a <code>toMillis()</code>), null for as parsed
+     * @throws UncheckedIOException if unable to bind
+     */
+    public static ZtimeStampServer start( int port, TimeLength target ) {
+        return start( new InetSocketAddress( InetAddress.getLoopbackAddress(), port ), target );
+    }
+
+    /**
+     * @param address to listen on
+     * @param target  precision to adjust to (e.g. <code>Millis</code> for a <code>toMillis()</code>), null for as parsed
+     * @throws UncheckedIOException if unable to bind
+     */
+    public static ZtimeStampServer start( InetSocketAddress address, TimeLength target ) {
+        return start( address, target, MAX_CONNECTIONS );
+    }
+
+    /**
+     * @param address        to listen on
+     * @param target         precision to adjust to (e.g. <code>Millis</code> for a <code>toMillis()</code>), null for as parsed
+     * @param maxConnections maximum number of concurrently served connections (at least 1)
+     * @throws IllegalArgumentException if <code>maxConnections</code> is less than 1
+     * @throws UncheckedIOException     if unable to bind
+     */
+    public static ZtimeStampServer start( InetSocketAddress address, TimeLength target, int maxConnections ) {
+        if ( maxConnections < 1 ) {
+            throw new IllegalArgumentException( "expected maxConnections of at least 1, but got: " + maxConnections );
+        }
+        try {
+            ServerSocketChannel server = ServerSocketChannel.open();
+            try {
+                server.bind( address );
+            }
+            catch ( IOException e ) {
+                server.close();
+                throw e;
+            }
+            return new ZtimeStampServer( server, target, maxConnections );
+        }
+        catch ( IOException e ) {
+            throw new UncheckedIOException( e );
+        }
+    }
+
+    /**
+     * @return the bound address (with the actual port)
+     */
+    public InetSocketAddress getAddress() {
+        try {
+            return (InetSocketAddress)server.getLocalAddress();
+        }
+        catch ( IOException e ) {
+            throw new UncheckedIOException( e );
+        }
+    }
+
+    public TimeLength getTarget() {
+        return target;
+    }
+
+    public int getMaxConnections() {
+        return maxConnections;
+    }
+
+    /**
+     * Stop listening, and close all the open connections.
+     */
+    @Override
+    public void close() {
+        try {
+            server.close();
+        }
+        catch ( IOException e ) {
+            // ignore, closing anyway
+        }
+        for ( SocketChannel channel : open ) {
+            closeQuietly( channel );
+        }
+        connections.shutdown();
+    }
+
+    /**
+     * Stand-alone server: <code>[port [target|- [bindAddress]]]</code> (defaults: 8601, as parsed, loopback only);
+     * listening on other than the loopback address (e.g. "0.0.0.0" for all of them) must be explicitly asked for.
+     */
+    public static void main( String[] args ) throws IOException, InterruptedException {
+        int port = (args.length > 0) ? Integer.parseInt( args[0] ) : 8601;
+        TimeLength target = ((args.length > 1) && !"-".equals( args[1] )) ? TimeLength.valueOf( args[1] ) : null;
+        InetAddress bindAddress = (args.length > 2) ? InetAddress.getByName( args[2] ) : InetAddress.getLoopbackAddress();
+        start( new InetSocketAddress( bindAddress, port ), target ).acceptor.join();
+    }
+
+    private void accept() {
+        int failures = 0; // consecutive
+        while ( server.isOpen() ) {
+            SocketChannel channel;
+            try {
+                channel = server.accept();
+                failures = 0;
+            }
+            catch ( ClosedChannelException e ) {
+                return;
+            }
+            catch ( IOException e ) {
+                // e.g. the client gave up, or out of file descriptors (which can last): keep accepting, but backing off
+                try {
+                    Thread.sleep( acceptBackOffMillis( ++failures ) );
+                }
+                catch ( InterruptedException ie ) {
+                    return;
+                }
+                continue;
+            }
+            if ( !permits.tryAcquire() ) {
+                refuse( channel );
+                continue;
+            }
+            open.add( channel );
+            if ( !server.isOpen() ) { // closed while accepting
+                open.remove( channel );
+                closeQuietly( channel );
+                permits.release();
+                return;
+            }
+            connections.execute( () -> serve( channel ) );
+        }
+    }
+
+    private void serve( SocketChannel channel ) {
+        try {
+            new Connection( channel ).run();
+        }
+        catch ( IOException e ) {
+            // client went away (or the server was closed)
+        }
+        finally {
+            open.remove( channel );
+            closeQuietly( channel );
+            permits.release();
+        }
+    }
+
+    private static void refuse( SocketChannel channel ) {
+        try {
+            channel.write( ByteBuffer.wrap( TOO_MANY_CONNECTIONS_LINE ) ); // small enough for an empty socket buffer
+        }
+        catch ( IOException e ) {
+            // client went away
+        }
+        finally {
+            closeQuietly( channel );
+        }
+    }
+
+    private class Connection {
+        private final SocketChannel channel;
+        private final ISO8601ZtimeStampParser parser = new ISO8601ZtimeStampParser();
+        private final ByteSequence line = new ByteSequence();
+        private final byte[] formatted = new byte[ZtimeStampFormatter.MAX_LENGTH + 1];
+        private final ByteBuffer in = ByteBuffer.allocate( BUFFER_SIZE );
+        private final ByteOutput out;
+        private boolean discarding; // the rest of a too long line
+
+        Connection( SocketChannel channel ) {
+            this.channel = channel;
+            out = new ByteOutput( channel, BUFFER_SIZE );
+        }
+
+        void run() throws IOException {
+            while ( channel.read( in ) != -1 ) {
+                int end = in.position();
+                int lineStart = 0;
+                for ( int newlineAt; (newlineAt = indexOf( in, lineStart, end )) != -1; lineStart = newlineAt + 1 ) {
+                    respond( lineStart, newlineAt );
+                }
+                if ( (lineStart == 0) && (end == in.capacity()) ) { // no newline in a full buffer
+                    discarding = true;
+                    lineStart = end;
+                }
+                in.limit( end ).position( lineStart );
+                in.compact();
+                out.flush(); // answer everything read so far, before (possibly) blocking on the next read
+            }
+            if ( discarding || (in.position() != 0) ) { // a final line without a newline
+                respond( 0, in.position() );
+            }
+            out.flush();
+        }
+
+        private void respond( int lineStart, int lineEnd ) throws IOException {
+            if ( discarding ) {
+                discarding = false;
+                out.put( LINE_TOO_LONG_LINE, 0, LINE_TOO_LONG_LINE.length );
+                return;
+            }
+            if ( (lineStart < lineEnd) && (in.get( lineEnd - 1 ) == '\r') ) {
+                lineEnd--;
+            }
+            if ( parser.load( line.set( in, lineStart, lineEnd - lineStart ) ) ) {
+                int length = parser.formatTo( formatted, 0, target );
+                formatted[length++] = '\n';
+                out.put( formatted, 0, length );
+            } else {
+                byte[] error = ERROR_LINES[parser.getErrorCode().ordinal()];
+                out.put( error, 0, error.length );
+            }
+        }
+    }
+
+    /**
+     * @param failures consecutive (at least 1)
+     * @return the pause before the next accept: 1ms for the first failure, doubling up to
+     * <code>MAX_ACCEPT_BACK_OFF_MILLIS</code>
+     */
+    static long acceptBackOffMillis( int failures ) {
+        return Math.min( MAX_ACCEPT_BACK_OFF_MILLIS, 1L << Math.min( failures - 1, 20 ) );
+    }
+
+    private static int indexOf( ByteBuffer buffer, int start, int end ) {
+        for ( int i = start; i < end; i++ ) {
+            if ( buffer.get( i ) == '\n' ) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static byte[][] errorLines() {
+        Code[] codes = Code.values();
+        byte[][] lines = new byte[codes.length][];
+        for ( Code code : codes ) {
+            lines[code.ordinal()] = (ERROR_PREFIX + code.name() + "\n").getBytes( StandardCharsets.US_ASCII );
+        }
+        return lines;
+    }
+
+    private static void closeQuietly( SocketChannel channel ) {
+        try {
+            channel.close();
+        }
+        catch ( IOException e ) {
+            // ignore
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package org.litesoft.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+import org.litesoft.utils.CachingNormalizer.Policy;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CachingNormalizerTest {
+    private static final String ZULU = "2011-01-16T13:25:30Z";
+    private static final String OFFSET = "2011-12-31T23:35+0:30";
+    private static final String ERROR = "2011-01-16T13";
+
+    @Test
+    void _sameAsFromString() {
+        for ( Policy policy : Policy.values() ) {
+            CachingNormalizer cache = new CachingNormalizer( 10, policy );
+            for ( int pass = 0; pass < 2; pass++ ) {
+                for ( String input : new String[]{ZULU, OFFSET, ERROR, null} ) {
+                    assertEquals( ISO8601ZtimeStamp.fromString( input ), cache.fromString( input ), input );
+                }
+            }
+            assertEquals( 3, cache.getHits(), policy.name() );
+            assertEquals( 3, cache.getMisses(), policy.name() ); // nulls are not cached (or counted)
+            assertEquals( 3, cache.size(), policy.name() );
+            assertSame( cache.fromString( ERROR ), cache.fromString( ERROR ) );
+        }
+    }
+
+    @Test
+    void _lru() {
+        CachingNormalizer cache = new CachingNormalizer( 2, Policy.LRU );
+        cache.fromString( ZULU );
+        cache.fromString( OFFSET );
+        cache.fromString( ZULU ); // now OFFSET is the least recently used
+        cache.fromString( ERROR );
+        assertEquals( 1, cache.getEvictions() );
+        assertEquals( 2, cache.size() );
+
+        cache.fromString( ZULU );
+        assertEquals( 2, cache.getHits() );
+        cache.fromString( OFFSET );
+        assertEquals( 4, cache.getMisses() );
+        assertEquals( "hits: 2, misses: 4, evictions: 2, rejections: 0", cache.toString() );
+    }
+
+    @Test
+    void _lruAfterManyHits() {
+        CachingNormalizer cache = new CachingNormalizer( 2, Policy.LRU );
+        cache.fromString( ZULU );
+        cache.fromString( OFFSET );
+        for ( int i = 0; i < 100; i++ ) {
+            cache.fromString( OFFSET );
+        }
+        cache.fromString( ZULU ); // now OFFSET is the least recently used
+        cache.fromString( ERROR );
+        assertEquals( 1, cache.getEvictions() );
+        cache.fromString( ZULU );
+        assertEquals( 102, cache.getHits() );
+        cache.fromString( OFFSET );
+        assertEquals( 4, cache.getMisses() );
+    }
+
+    @Test
+    void _tinyLfu() {
+        CachingNormalizer cache = new CachingNormalizer( 2, Policy.TINY_LFU );
+        for ( int i = 0; i < 5; i++ ) {
+            cache.fromString( ZULU );
+            cache.fromString( OFFSET );
+        }
+        long hits = cache.getHits();
+        for ( int second = 0; second < 50; second++ ) { // a scan of one-off values
+            cache.fromString( "2011-01-17T13:25:" + second + "Z" );
+        }
+        assertEquals( 0, cache.getEvictions() );
+        assertEquals( 50, cache.getRejections() );
+        cache.fromString( ZULU );
+        cache.fromString( OFFSET );
+        assertEquals( hits + 2, cache.getHits() );
+    }
+
+    @Test
+    void _concurrent() throws Exception {
+        CachingNormalizer cache = new CachingNormalizer( 1000, Policy.TINY_LFU );
+        ExecutorService executor = Executors.newFixedThreadPool( 4 );
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for ( int t = 0; t < 4; t++ ) {
+                futures.add( executor.submit( () -> {
+                    for ( int i = 0; i < 20000; i++ ) {
+                        String input = "2011-01-16T13:" + ((i * 7) % 60) + ":" + (i % 60) + "+" + (i % 3);
+                        assertEquals( ISO8601ZtimeStamp.fromString( input ), cache.fromString( input ) );
+                    }
+                } ) );
+            }
+            for ( Future<?> future : futures ) {
+                future.get();
+            }
+        }
+        finally {
+            executor.shutdown();
+        }
+        assertEquals( 80000, cache.getHits() + cache.getMisses() );
+        assertTrue( cache.size() <= 1000 );
+    }
+
+    @Test
+    void _badArguments() {
+        assertThrows( IllegalArgumentException.class, () -> new CachingNormalizer( 0, Policy.LRU ) );
+        assertThrows( IllegalArgumentException.class, () -> new CachingNormalizer( 1, null ) );
+    }
+}
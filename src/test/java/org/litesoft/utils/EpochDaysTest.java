@@ -0,0 +1,38 @@
+package org.litesoft.utils;
+
+import java.time.LocalDate;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EpochDaysTest {
+
+    @Test
+    void _sameAsLocalDate() {
+        for ( long epochDay = EpochDays.MIN; epochDay <= EpochDays.MAX; epochDay += 3 ) {
+            check( epochDay );
+        }
+        check( EpochDays.MAX );
+        assertEquals( LocalDate.of( 1, 1, 1 ).toEpochDay(), EpochDays.MIN );
+        assertEquals( LocalDate.of( 9999, 12, 31 ).toEpochDay(), EpochDays.MAX );
+    }
+
+    private void check( long epochDay ) {
+        LocalDate date = LocalDate.ofEpochDay( epochDay );
+        int civil = EpochDays.toCivil( epochDay );
+        assertEquals( date.getYear(), EpochDays.year( civil ), date::toString );
+        assertEquals( date.getMonthValue(), EpochDays.month( civil ), date::toString );
+        assertEquals( date.getDayOfMonth(), EpochDays.day( civil ), date::toString );
+        assertEquals( epochDay, EpochDays.fromCivil( date.getYear(), date.getMonthValue(), date.getDayOfMonth() ) );
+    }
+
+    @Test
+    void _inRange() {
+        assertTrue( EpochDays.inRange( 0 ) );
+        assertTrue( EpochDays.inRange( EpochDays.MIN ) );
+        assertTrue( EpochDays.inRange( EpochDays.MAX ) );
+        assertFalse( EpochDays.inRange( EpochDays.MIN - 1 ) );
+        assertFalse( EpochDays.inRange( EpochDays.MAX + 1 ) );
+    }
+}
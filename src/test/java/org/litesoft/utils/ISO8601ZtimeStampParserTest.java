@@ -0,0 +1,100 @@
+package org.litesoft.utils;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.litesoft.utils.ISO8601ZtimeStamp.*;
+
+class ISO8601ZtimeStampParserTest {
+    private static final String[] DATES = {
+            "2011-01-16", "11-1-2", "+2011-01-16", " 2011 - 01 - 16 ", "2011-01-16-", "2011-01-16--",
+            "2011--16", "-2011-01-16", "2011-01", "", "-", "---", "0-1-1", "12011-01-16", "2011-13-01",
+            "2011-02-29", "2012-02-29", "2011-0x-16", "9999-12-31", "0001-01-01", "99999999999-1-1",
+            "2011-+1-+16", "2011-1+-16", "20 11-01-16",
+            };
+    private static final String[] TIMES = {
+            "13", "13:25", "13:25:30", "13:25:30.123", "13:25:30.123456", "13:25:30.123456789", "0:5:6.7",
+            "00:05:06.78", "00:05:06.7809", "00:05:06.7809123", "23:59:59.999999999", "13:0:0:0",
+            "13:00:00.0123456789", "13:25:", "13::", ":13", ":", "::", "", " 13 : 25 ", "13: ", "13:25: ",
+            "13:25:.5", "13:25:06.", "13:25:06.1.2", "13:25:06. 7", "13:25:06.12 456", "13:25:06.1234 6",
+            "24", "13:60", "13:25:60", "1x", "13:25:06.12x", "13T",
+            };
+    private static final String[] ZONES = {
+            "Z", "", "z", "Z ", "Z.", "ZZ", "+00:00", "-00:00", "+0", "-0", "Z+11:59", "Z-1:59", "Z+hello",
+            "+0:00Z", "-0Z", "+5:45", "-5:45", "+1:2:3", "+1+2", "+1-2", "-1-2", "-1:2", "+14", "+15",
+            "-14:45", "+:30", "+1:", "+", "-", "+5:50", "+5:x", "+x:30", "+05:30Z ", "+05:30ZX", "ZX+05",
+            "Z +05", "+12:15", "-12:15", "+2", "-2", "+00:15", "-00:15",
+            };
+
+    @Test
+    void _sameAsGeneral() {
+        for ( String date : DATES ) {
+            for ( String time : TIMES ) {
+                for ( String zone : ZONES ) {
+                    checkSame( date + "T" + time + zone );
+                    checkSame( " " + date + "t" + time + zone.toLowerCase() + "\t" );
+                }
+            }
+        }
+    }
+
+    @Test
+    void _sameAsGeneral_oddBalls() {
+        checkSame( null );
+        checkSame( "" );
+        checkSame( " \t " );
+        checkSame( "2011-01-16 13Z" );
+        checkSame( "hello" );
+        checkSame( "t" );
+        checkSame( "9999-12-31T23+2" );
+        checkSame( "0001-01-01T00-2" );
+        checkSame( "2011-12-31T23:35+0:30" );
+        checkSame( "2011-01-01T00:25-0:30" );
+        checkSame( "2011-03-01T00:25-0:30" );
+        checkSame( "2012-03-01T00:25-0:30" );
+        checkSame( "2011-02-28T23:25+0:45" );
+        checkSame( "2012-02-28T23:25+0:45" );
+        checkSame( "2011-01-16T13:25Z+ünïcødé" ); // General
+        checkSame( "２011-01-16T13:25Z" ); // General (full width digit)
+    }
+
+    @Test
+    void _dateMemo() {
+        ISO8601ZtimeStampParser parser = new ISO8601ZtimeStampParser();
+        String[] in = {
+                "2011-12-31T10Z", "2011-12-31T23:35+0:30", "2011-12-31T23:35+0:30", "2011-12-31T00:25-0:30",
+                "2011-12-31T25Z", "2011-12-31T10Z", "2011-12-32T10Z", "2011-12-31T10Z", "9999-12-31T10Z",
+                "9999-12-31T23+2", "9999-12-31T10Z", "2012-02-28T23:25+0:45", "2012-02-28T23:25+0:45",
+                "2012-2-28T23:25+0:45", "2011-12-31T10Z"};
+        for ( String input : in ) {
+            ISO8601ZtimeStamp expected = fromStringGeneral( input );
+            ISO8601ZtimeStamp actual = parser.parse( input );
+            assertEquals( expected.getValue(), actual.getValue(), input );
+            assertEquals( expected.getError(), actual.getError(), input );
+        }
+    }
+
+    @Test
+    void _happyValues() {
+        checkValue( "2011-01-16T13Z", "2011-01-16T13Z" );
+        checkValue( " 2011-01-16t13:25z ", "2011-01-16T13:25Z" );
+        checkValue( "2011-12-31T23:35+0:30", "2012-01-01T00:05Z" );
+        checkValue( "2011-01-01T00:25-0:30", "2010-12-31T23:55Z" );
+        checkValue( "11-1-2T0:5:6.7Z", "0011-01-02T00:05:06.700Z" );
+        checkValue( "2012-02-28T23:25+0:45", "2012-02-29T00:10Z" );
+        checkValue( new StringBuilder( "2012-02-28T23:25+0:45" ), "2012-02-29T00:10Z" );
+    }
+
+    private void checkValue( CharSequence input, String expected ) {
+        ISO8601ZtimeStamp ts = new ISO8601ZtimeStampParser().parse( input );
+        assertNull( ts.getError(), input::toString );
+        assertEquals( expected, ts.getValue() );
+    }
+
+    private void checkSame( String input ) {
+        ISO8601ZtimeStamp expected = fromStringGeneral( input );
+        ISO8601ZtimeStamp actual = ISO8601ZtimeStampParser.perThread().parse( input );
+        assertEquals( expected.getError(), actual.getError(), input );
+        assertEquals( expected.getValue(), actual.getValue(), input );
+    }
+}
@@ -1,7 +1,13 @@
 package org.litesoft.utils;
 
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
+import java.util.Random;
 import java.util.function.UnaryOperator;
 
 import org.junit.jupiter.api.Test;
@@ -25,11 +31,112 @@ class ISO8601ZtimeStampTest {
         check( fromEpochMillis( MILLIS ), TO_MILLIS + "Z" );
     }
 
+    @Test
+    void _epoch() {
+        Random random = new Random( 13 );
+        long min = Instant.parse( "0001-01-01T00:00:00Z" ).getEpochSecond();
+        long max = Instant.parse( "9999-12-31T23:59:59Z" ).getEpochSecond();
+        for ( int i = 0; i < 10000; i++ ) {
+            Instant instant = Instant.ofEpochSecond( min + (long)(random.nextDouble() * (max - min)), random.nextInt( 1000000000 ) );
+            long millis = instant.toEpochMilli();
+            long micros = Math.addExact( Math.multiplyExact( instant.getEpochSecond(), 1000000L ), instant.getNano() / 1000 );
+            check( fromEpochMillis( millis ), Instant.ofEpochMilli( millis ).toString() );
+            check( fromEpochMicros( micros ), Instant.ofEpochSecond( instant.getEpochSecond(), (instant.getNano() / 1000) * 1000 ).toString() );
+            check( fromEpochSecond( instant.getEpochSecond(), instant.getNano() ), instant.toString() );
+
+            ISO8601ZtimeStamp ts = fromString( instant.toString() );
+            assertEquals( instant.getEpochSecond(), ts.toEpochSecond(), instant::toString );
+            assertEquals( instant.getNano(), ts.getNanoOfSecond(), instant::toString );
+            assertEquals( millis, ts.toEpochMillis(), instant::toString );
+            assertEquals( micros, ts.toEpochMicros(), instant::toString );
+            assertEquals( Math.floorDiv( millis, 3600000 ) * 3600000, ts.toHour().toEpochMillis(), instant::toString );
+        }
+        for ( long nanos : new long[]{Long.MIN_VALUE, -1, 0, 1, Long.MAX_VALUE, 1295184330123456789L} ) {
+            Instant instant = Instant.ofEpochSecond( 0, nanos );
+            check( fromEpochNanos( nanos ), instant.toString() );
+            assertEquals( nanos, fromString( instant.toString() ).toEpochNanos() );
+        }
+        check( fromEpochMillis( MILLIS ), TO_MILLIS + "Z" );
+        assertEquals( MILLIS, fromString( TO_NANOS + "Z" ).toEpochMillis() );
+
+        assertThrows( ArithmeticException.class, () -> fromString( "2263-01-01T00Z" ).toEpochNanos() );
+        assertThrows( IllegalStateException.class, () -> fromString( "x" ).toEpochMillis() );
+        assertThrows( IllegalArgumentException.class, () -> fromEpochSecond( max + 1, 0 ) );
+        assertThrows( IllegalArgumentException.class, () -> fromEpochSecond( 0, -1 ) );
+        assertThrows( IllegalArgumentException.class, () -> fromEpochMicros( Long.MIN_VALUE ) );
+        assertEquals( Instant.ofEpochMilli( Long.MAX_VALUE ).toString(), fromEpochMillis( Long.MAX_VALUE ).getValue() ); // as before
+    }
+
+    @Test
+    void _compareTo() {
+        ISO8601ZtimeStamp hour = fromString( "2011-01-16T13Z" );
+        ISO8601ZtimeStamp minute = fromString( "2011-01-16T13:00Z" );
+        ISO8601ZtimeStamp halfPast = fromString( "2011-01-16T13:30Z" );
+        ISO8601ZtimeStamp error = fromString( "2011-01-16T13" );
+        assertTrue( minute.compareTo( hour ) < 0 ); // finer first
+        assertTrue( hour.compareTo( halfPast ) < 0 ); // lexically the other way around
+        assertTrue( halfPast.compareTo( error ) < 0 );
+        assertTrue( error.compareTo( fromString( null ) ) > 0 ); // errors by value (nulls first)
+        assertEquals( 0, hour.compareTo( fromString( "2011-01-16T12+1" ) ) );
+        assertEquals( 0, BY_INSTANT.compare( hour, minute ) );
+        assertTrue( BY_INSTANT.compare( halfPast, minute ) > 0 );
+
+        Random random = new Random( 19 );
+        List<ISO8601ZtimeStamp> timeStamps = new ArrayList<>();
+        for ( int i = 0; i < 5000; i++ ) {
+            ISO8601ZtimeStamp ts = fromEpochSecond( 1295184330L + random.nextInt( 7200 ), random.nextInt( 4 ) * 250000000 );
+            timeStamps.add( (i % 2 == 0) ? ts : ts.toNanos() );
+        }
+        timeStamps.add( error );
+        timeStamps.sort( null );
+        for ( int i = 1; i < timeStamps.size(); i++ ) {
+            ISO8601ZtimeStamp prev = timeStamps.get( i - 1 ), curr = timeStamps.get( i );
+            int cmp = prev.compareTo( curr );
+            assertTrue( cmp <= 0 );
+            assertEquals( cmp == 0, prev.equals( curr ) );
+            if ( curr != error ) {
+                assertTrue( Instant.parse( prev.getValue() ).compareTo( Instant.parse( curr.getValue() ) ) <= 0 );
+            }
+        }
+        assertSame( error, timeStamps.get( timeStamps.size() - 1 ) );
+
+        for ( ISO8601ZtimeStamp ts : new ISO8601ZtimeStamp[]{hour, error, fromString( null )} ) {
+            assertEquals( Objects.hash( ts.getValue(), ts.getError() ), ts.hashCode() );
+        }
+    }
+
     void check( ISO8601ZtimeStamp ts, String strFormZ ) {
         assertFalse( ts.hasError() );
         assertNull( ts.getError() );
 
         assertEquals( strFormZ, ts.getValue() );
+        assertEquals( TimeLength.from( strFormZ ), ts.getTimeLength(), strFormZ );
+    }
+
+    @Test
+    void _timeLength() {
+        ISO8601ZtimeStamp ts = fromString( TO_NANOS + "Z" );
+        assertEquals( TimeLength.Nanos, ts.getTimeLength() );
+        for ( UnaryOperator<ISO8601ZtimeStamp> adjuster : List.<UnaryOperator<ISO8601ZtimeStamp>>of(
+                ISO8601ZtimeStamp::toHour, ISO8601ZtimeStamp::toMinute, ISO8601ZtimeStamp::toSecond,
+                ISO8601ZtimeStamp::toMillis, ISO8601ZtimeStamp::toMicros, ISO8601ZtimeStamp::toNanos ) ) {
+            ISO8601ZtimeStamp adjusted = adjuster.apply( ts );
+            assertEquals( TimeLength.from( adjusted.getValue() ), adjusted.getTimeLength(), adjusted::getValue );
+            for ( TimeLength tl : TimeLength.values() ) { // as before: substring & concat with EXAMPLE_TIME_STAMP
+                String value = adjusted.getValue();
+                int lessZLength = value.length() - 1;
+                String expected = ((tl.zLessLength() < lessZLength) ?
+                                   value.substring( 0, tl.zLessLength() ) :
+                                   value.substring( 0, lessZLength )
+                                   + "yyyy-mm-ddT00:00:00.000000000Z".substring( lessZLength, tl.zLessLength() )) + "Z";
+                assertEquals( expected, tl.adjust( value ), value );
+            }
+        }
+        assertNull( fromString( "2011-01-16T13" ).getTimeLength() );
+        assertNull( TimeLength.from( "2011-01-16T13:25:30.1234567890Z" ) );
+        assertNull( TimeLength.from( "2011-01-16X13Z" ) );
+        assertEquals( TimeLength.Millis, fromEpochMillis( 1 ).getTimeLength() );
+        assertEquals( TimeLength.Second, ZtimeStampClock.system().at( 0 ).getTimeLength() );
     }
 
     @Test
@@ -100,6 +207,7 @@ class ISO8601ZtimeStampTest {
             strForm += str;
             assertNull( ts.getError(), strForm );
             assertEquals( strForm + "Z", ts.getValue(), strForm );
+            assertEquals( TimeLength.from( ts.getValue() ), ts.getTimeLength(), strForm );
         }
     }
 
@@ -110,6 +218,82 @@ class ISO8601ZtimeStampTest {
             ISO8601ZtimeStamp::toMicros,
             ISO8601ZtimeStamp::toNanos );
 
+    @Test
+    void _normalizeAll() {
+        String[] in = {TO_NANOS + "Z", "2011-12-31T23:35+0:30", null, "2011-01-16T13", "11-1-2T0:5:6.7Z", " 2011-01-16t13z "};
+        String[] out = new String[in.length];
+        String[] errors = new String[in.length];
+        assertEquals( 2, normalizeAll( in, out, errors ) );
+        for ( int i = 0; i < in.length; i++ ) {
+            ISO8601ZtimeStamp ts = fromString( in[i] );
+            assertEquals( ts.hasError() ? null : ts.getValue(), out[i], in[i] );
+            assertEquals( ts.getError(), errors[i], in[i] );
+        }
+        assertEquals( 2, normalizeAll( in, out, null, TimeLength.Millis ) );
+        for ( int i = 0; i < in.length; i++ ) {
+            ISO8601ZtimeStamp ts = fromString( in[i] ).toMillis();
+            assertEquals( ts.hasError() ? null : ts.getValue(), out[i], in[i] );
+        }
+
+        long[] packed = new long[in.length];
+        assertEquals( 3, normalizeAll( in, packed, errors, null ) ); // Nanos not packable
+        assertEquals( PackedZtimeStamp.NANOS_NOT_PACKABLE, errors[0] );
+        assertEquals( 2, normalizeAll( in, packed, errors, TimeLength.Hour ) );
+        for ( int i = 0; i < in.length; i++ ) {
+            ISO8601ZtimeStamp ts = fromString( in[i] ).toHour();
+            assertEquals( ts.hasError() ? 0 : ts.toPackedLong(), packed[i], in[i] );
+            assertEquals( ts.getError(), errors[i], in[i] );
+        }
+
+        assertThrows( IllegalArgumentException.class, () -> normalizeAll( in, new String[1], null ) );
+    }
+
+    @Test
+    void _validate() {
+        String[] in = {TO_NANOS + "Z", "2011-12-31T23:35+0:30", null, " ", "2011-01-16T13", "11-1-2T0:5:6.7Z",
+                       "9999-12-31T23:00+1", "0001-01-01T00:00-1", "2011-02-29T13Z", "２011-01-16T13Z", "2011-01-16T13Zü"};
+        for ( String input : in ) {
+            ISO8601ZtimeStamp ts = fromString( input );
+            assertEquals( ts.getErrorCode(), validate( input ), input );
+            assertEquals( !ts.hasError(), isValid( input ), input );
+        }
+        assertEquals( ZtimeStampError.Code.DATE_YEAR_ROLLED_GT_9999, validate( new StringBuilder( "9999-12-31T23:00+1" ) ) );
+    }
+
+    @Test
+    void _fromBytes() {
+        String[] in = {TO_NANOS + "Z", " 2011-12-31t23:35+0:30 ", "", "2011-01-16T13", "11-1-2T0:5:6.7Z",
+                       "２011-01-16T13Z", "2011-01-16T13Zü", "2011-13-16T13Z"};
+        for ( String input : in ) {
+            ISO8601ZtimeStamp expected = fromString( input );
+            byte[] utf8 = ("<<" + input + ">>").getBytes( StandardCharsets.UTF_8 );
+            int length = utf8.length - 4;
+            assertEquals( expected, fromBytes( utf8, 2, length ), input );
+
+            ByteBuffer direct = ByteBuffer.allocateDirect( utf8.length ).put( utf8 ).position( 2 ).limit( 2 + length );
+            assertEquals( expected, fromBuffer( direct ), input );
+            assertEquals( 2, direct.position() );
+        }
+        assertEquals( fromString( null ), fromBytes( null, 0, 0 ) );
+        assertEquals( fromString( null ), fromBuffer( null ) );
+        assertThrows( IndexOutOfBoundsException.class, () -> fromBytes( new byte[2], 1, 2 ) );
+    }
+
+    @Test
+    void _writeTo() {
+        ISO8601ZtimeStamp ts = fromString( TO_MILLIS + "Z" );
+        byte[] buf = new byte[40];
+        int end = ts.writeTo( buf, 3 );
+        assertEquals( TO_MILLIS + "Z", new String( buf, 3, end - 3, StandardCharsets.US_ASCII ) );
+
+        ByteBuffer buffer = ts.writeTo( ByteBuffer.allocate( 40 ).put( (byte)'>' ) ).flip();
+        assertEquals( ">" + TO_MILLIS + "Z", StandardCharsets.US_ASCII.decode( buffer ).toString() );
+
+        assertThrows( BufferOverflowException.class, () -> ts.writeTo( ByteBuffer.allocate( 4 ) ) );
+        assertThrows( IndexOutOfBoundsException.class, () -> ts.writeTo( buf, 30 ) );
+        assertThrows( IllegalStateException.class, () -> fromString( "x" ).writeTo( buf, 0 ) );
+    }
+
     @Test
     void unhappyCases_fromString() {
         checkExpectError( null, TO_PARSE_WAS_NULL );
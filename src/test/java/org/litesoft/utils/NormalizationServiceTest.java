@@ -0,0 +1,143 @@
+package org.litesoft.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.litesoft.utils.ISO8601ZtimeStamp.TimeLength;
+import org.litesoft.utils.NormalizationService.Overflow;
+import org.litesoft.utils.NormalizationService.Result;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NormalizationServiceTest {
+    private static final String[] BATCH = {"2011-01-16T13:25:30Z", "2011-12-31T23:35+0:30", null, "2011-01-16T13"};
+
+    @Test
+    void _sameAsNormalizeAll() {
+        String[] out = new String[BATCH.length];
+        String[] errors = new String[BATCH.length];
+        int errorCount = ISO8601ZtimeStamp.normalizeAll( BATCH, out, errors, TimeLength.Millis );
+
+        List<CompletableFuture<Result>> futures = new ArrayList<>();
+        try ( NormalizationService service = NormalizationService.create( 1000, Overflow.BLOCK, TimeLength.Millis ) ) {
+            for ( int i = 0; i < 500; i++ ) {
+                futures.add( service.submit( BATCH ) );
+            }
+        } // close waits for the queued batches
+        for ( CompletableFuture<Result> future : futures ) {
+            Result result = future.join();
+            assertArrayEquals( out, result.getValues() );
+            assertArrayEquals( errors, result.getErrors() );
+            assertEquals( errorCount, result.getErrorCount() );
+        }
+    }
+
+    @Test
+    void _backPressure() throws Exception {
+        CountDownLatch hold = new CountDownLatch( 1 );
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        executor.execute( () -> {
+            try {
+                hold.await(); // the drainer can't start until released
+            }
+            catch ( InterruptedException e ) {
+                Thread.currentThread().interrupt();
+            }
+        } );
+        NormalizationService service = new NormalizationService( executor, 1, 2, Overflow.REJECT, null );
+        CompletableFuture<Result> first = service.submit( BATCH );
+        CompletableFuture<Result> second = service.submit( BATCH );
+        CompletableFuture<Result> third = service.submit( BATCH );
+        assertEquals( 2, service.getQueued() );
+        CompletionException e = assertThrows( CompletionException.class, third::join );
+        assertInstanceOf( RejectedExecutionException.class, e.getCause() );
+        assertEquals( NormalizationService.QUEUE_FULL, e.getCause().getMessage() );
+
+        hold.countDown();
+        assertEquals( 2, first.join().getErrorCount() );
+        assertEquals( "2012-01-01T00:05Z", second.join().getValues()[1] );
+        service.close();
+        executor.shutdown();
+
+        e = assertThrows( CompletionException.class, () -> service.submit( BATCH ).join() );
+        assertEquals( NormalizationService.CLOSED, e.getCause().getMessage() );
+        assertThrows( IllegalArgumentException.class, () -> service.submit( null ) );
+        assertThrows( IllegalArgumentException.class, () -> new NormalizationService( executor, 0, 1, Overflow.BLOCK, null ) );
+    }
+
+    @Test
+    void _drainersStopped() throws Exception {
+        CountDownLatch entered = new CountDownLatch( 1 );
+        CharSequence blocking = new BlockingCharSequence( "2011-01-16T13:25:30Z", entered );
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        NormalizationService service = new NormalizationService( executor, 1, 4, Overflow.BLOCK, null );
+        CompletableFuture<Result> taken = service.submit( new CharSequence[]{blocking} );
+        entered.await(); // the drainer is in the middle of the taken batch
+        CompletableFuture<Result> queued1 = service.submit( BATCH );
+        CompletableFuture<Result> queued2 = service.submit( BATCH );
+
+        executor.shutdownNow(); // interrupts the drainer
+        assertTrue( executor.awaitTermination( 5, TimeUnit.SECONDS ) );
+        taken.join(); // (was mid-parse, so it finished)
+        for ( CompletableFuture<Result> future : List.of( queued1, queued2 ) ) {
+            CompletionException e = assertThrows( CompletionException.class, future::join );
+            assertEquals( NormalizationService.ABANDONED, e.getCause().getMessage() );
+        }
+        CompletionException e = assertThrows( CompletionException.class, () -> service.submit( BATCH ).join() );
+        assertEquals( NormalizationService.CLOSED, e.getCause().getMessage() );
+        assertEquals( 0, service.getQueued() );
+        service.close(); // returns (nothing to wait for)
+    }
+
+    /**
+     * Waits (on its first <code>charAt</code>) until interrupted.
+     */
+    private static final class BlockingCharSequence implements CharSequence {
+        private final String text;
+        private final CountDownLatch entered;
+        private boolean waited;
+
+        BlockingCharSequence( String text, CountDownLatch entered ) {
+            this.text = text;
+            this.entered = entered;
+        }
+
+        @Override
+        public int length() {
+            return text.length();
+        }
+
+        @Override
+        public char charAt( int index ) {
+            if ( !waited ) {
+                waited = true;
+                entered.countDown();
+                try {
+                    new CountDownLatch( 1 ).await();
+                }
+                catch ( InterruptedException e ) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return text.charAt( index );
+        }
+
+        @Override
+        public CharSequence subSequence( int start, int end ) {
+            return text.subSequence( start, end );
+        }
+
+        @Override
+        public String toString() {
+            return text;
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package org.litesoft.utils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.litesoft.utils.ISO8601ZtimeStamp.TimeLength;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.litesoft.utils.PackedZtimeStamp.*;
+
+class PackedZtimeStampTest {
+    private static final String[] VALUES = {
+            "0001-01-01T00Z",
+            "2011-01-16T13Z",
+            "2011-01-16T13:25Z",
+            "2011-01-16T13:25:30Z",
+            "2011-01-16T13:25:30.123Z",
+            "2011-01-16T13:25:30.123456Z",
+            "2012-02-29T23:59:59.999999Z",
+            "9999-12-31T23:59:59.999Z",
+            };
+
+    @Test
+    void _roundTrip() {
+        for ( String value : VALUES ) {
+            ISO8601ZtimeStamp ts = ISO8601ZtimeStamp.fromString( value );
+            assertTrue( ts.isPackable(), value );
+            long packed = ts.toPackedLong();
+            assertTrue( packed > 0, value );
+            assertEquals( value, PackedZtimeStamp.toString( packed ) );
+            assertEquals( ts, ISO8601ZtimeStamp.fromPackedLong( packed ) );
+        }
+    }
+
+    @Test
+    void _adjust() {
+        for ( String value : VALUES ) {
+            ISO8601ZtimeStamp ts = ISO8601ZtimeStamp.fromString( value );
+            long packed = ts.toPackedLong();
+            assertEquals( ts.toHour().toPackedLong(), adjust( packed, TimeLength.Hour ), value );
+            assertEquals( ts.toMinute().toPackedLong(), adjust( packed, TimeLength.Minute ), value );
+            assertEquals( ts.toSecond().toPackedLong(), adjust( packed, TimeLength.Second ), value );
+            assertEquals( ts.toMillis().toPackedLong(), adjust( packed, TimeLength.Millis ), value );
+            assertEquals( ts.toMicros().toPackedLong(), adjust( packed, TimeLength.Micros ), value );
+            assertThrows( IllegalArgumentException.class, () -> adjust( packed, TimeLength.Nanos ) );
+        }
+    }
+
+    @Test
+    void _fields() {
+        long packed = ISO8601ZtimeStamp.fromString( "2012-02-29T23:58:57.123456Z" ).toPackedLong();
+        assertEquals( 2012, getYear( packed ) );
+        assertEquals( 2, getMonth( packed ) );
+        assertEquals( 29, getDay( packed ) );
+        assertEquals( 23, getHour( packed ) );
+        assertEquals( 58, getMinute( packed ) );
+        assertEquals( 57, getSecond( packed ) );
+        assertEquals( 123456, getMicros( packed ) );
+        assertEquals( TimeLength.Micros, getTimeLength( packed ) );
+        assertEquals( packed, pack( 2012, 2, 29, 23, 58, 57, 123456, TimeLength.Micros ) );
+
+        assertEquals( TimeLength.Hour, getTimeLength( pack( 2012, 2, 29, 23, 0, 0, 0, TimeLength.Hour ) ) );
+    }
+
+    @Test
+    void _ordering() {
+        List<ISO8601ZtimeStamp> sameLength = new ArrayList<>();
+        for ( int i = 0; i < 1000; i++ ) {
+            sameLength.add( ISO8601ZtimeStamp.fromEpochMillis( 1660000000000L + (i * 7919L * 3600_001L) ).toMillis() );
+        }
+        checkOrdering( sameLength );
+
+        // Same instant, finer first (like the lexical ordering)
+        ISO8601ZtimeStamp ts = ISO8601ZtimeStamp.fromString( "2011-01-16T13Z" );
+        checkOrdering( List.of( ts, ts.toMinute(), ts.toSecond(), ts.toMillis(), ts.toMicros() ) );
+        // Different precisions are chronological
+        assertTrue( ts.toPackedLong() < ISO8601ZtimeStamp.fromString( "2011-01-16T13:30Z" ).toPackedLong() );
+    }
+
+    private void checkOrdering( List<ISO8601ZtimeStamp> timeStamps ) {
+        String[] lexical = new String[timeStamps.size()];
+        long[] packed = new long[lexical.length];
+        for ( int i = 0; i < lexical.length; i++ ) {
+            lexical[i] = timeStamps.get( i ).getValue();
+            packed[i] = timeStamps.get( i ).toPackedLong();
+        }
+        Arrays.sort( lexical );
+        Arrays.sort( packed );
+        for ( int i = 0; i < lexical.length; i++ ) {
+            assertEquals( lexical[i], PackedZtimeStamp.toString( packed[i] ) );
+        }
+    }
+
+    @Test
+    void _notPackable() {
+        assertFalse( ISO8601ZtimeStamp.fromString( "2011-01-16T13:25:30.123456789Z" ).isPackable() );
+        assertFalse( ISO8601ZtimeStamp.fromString( "2011-01-16T13" ).isPackable() );
+        assertThrows( IllegalStateException.class, () -> ISO8601ZtimeStamp.fromString( "2011-01-16T13" ).toPackedLong() );
+
+        assertThrows( IllegalArgumentException.class, () -> pack( 2011, 1, 16, 13, 0, 0, 1, TimeLength.Nanos ) );
+        assertThrows( IllegalArgumentException.class, () -> pack( 2011, 2, 29, 13, 0, 0, 0, TimeLength.Hour ) );
+        assertThrows( IllegalArgumentException.class, () -> pack( 2011, 1, 16, 13, 5, 0, 0, TimeLength.Hour ) );
+        assertThrows( IllegalArgumentException.class, () -> pack( 2011, 1, 16, 13, 5, 0, 1, TimeLength.Millis ) );
+        assertThrows( IllegalArgumentException.class, () -> pack( 10000, 1, 16, 13, 5, 0, 0, TimeLength.Minute ) );
+    }
+}
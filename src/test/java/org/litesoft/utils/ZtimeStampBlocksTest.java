@@ -0,0 +1,82 @@
+package org.litesoft.utils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ZtimeStampBlocksTest {
+
+    @Test
+    void _roundTrip() {
+        Random random = new Random( 24 );
+        long[] packed = new long[1000];
+        long millis = 1295184330123L;
+        for ( int i = 0; i < packed.length; i++ ) {
+            millis += random.nextInt( 2000 ) - 100; // nearly monotonic
+            ISO8601ZtimeStamp ts = ISO8601ZtimeStamp.fromEpochMillis( millis );
+            if ( (i % 50) == 3 ) {
+                ts = ts.toMinute();
+            } else if ( (i % 50) == 4 ) {
+                ts = ISO8601ZtimeStamp.fromEpochMicros( (millis * 1000) + 7 );
+            }
+            packed[i] = ts.toPackedLong();
+        }
+        ZtimeStampBlocks blocks = ZtimeStampBlocks.encode( packed );
+        assertEquals( 1000, blocks.size() );
+        assertEquals( 8, blocks.blockCount() );
+        assertTrue( (blocks.toByteArray().length * 2) < (packed.length * Long.BYTES), "" + blocks.toByteArray().length );
+
+        for ( ZtimeStampBlocks decoded : new ZtimeStampBlocks[]{blocks, ZtimeStampBlocks.fromByteArray( blocks.toByteArray() )} ) {
+            for ( int row = 0; row < packed.length; row += 7 ) {
+                assertEquals( packed[row], decoded.getPacked( row ), "row " + row );
+            }
+            List<Long> streamed = new ArrayList<>();
+            decoded.forEachPacked( streamed::add );
+            assertArrayEquals( packed, streamed.stream().mapToLong( Long::longValue ).toArray() );
+            long[] block = new long[ZtimeStampBlocks.BLOCK_SIZE];
+            assertEquals( 1000 - (7 * ZtimeStampBlocks.BLOCK_SIZE), decoded.decodeBlock( 7, block ) );
+            assertEquals( packed[7 * ZtimeStampBlocks.BLOCK_SIZE], block[0] );
+        }
+        List<String> values = new ArrayList<>();
+        blocks.forEach( ts -> values.add( ts.getValue() ) );
+        assertEquals( PackedZtimeStamp.toString( packed[4] ), values.get( 4 ) );
+        assertEquals( ISO8601ZtimeStamp.fromPackedLong( packed[999] ), blocks.get( 999 ) );
+        assertThrows( IndexOutOfBoundsException.class, () -> blocks.getPacked( 1000 ) );
+    }
+
+    @Test
+    void _regularAndEdges() {
+        long[] packed = new long[ZtimeStampBlocks.BLOCK_SIZE + 1];
+        for ( int i = 0; i < packed.length; i++ ) {
+            packed[i] = ISO8601ZtimeStamp.fromEpochMillis( 1295184330000L + (i * 1000L) ).toPackedLong();
+        }
+        ZtimeStampBlocks blocks = ZtimeStampBlocks.encode( packed );
+        assertEquals( Integer.BYTES * 3 + 17 * 2, blocks.toByteArray().length ); // evenly spaced: width 0
+        assertEquals( packed[ZtimeStampBlocks.BLOCK_SIZE], blocks.getPacked( ZtimeStampBlocks.BLOCK_SIZE ) );
+
+        long[] extremes = {ISO8601ZtimeStamp.fromString( "9999-12-31T23:59:59.999999Z" ).toPackedLong(),
+                           ISO8601ZtimeStamp.fromString( "0001-01-01T00Z" ).toPackedLong(),
+                           ISO8601ZtimeStamp.fromString( "9999-12-31T23Z" ).toPackedLong()};
+        ZtimeStampBlocks decoded = ZtimeStampBlocks.fromByteArray( ZtimeStampBlocks.encode( extremes ).toByteArray() );
+        for ( int i = 0; i < extremes.length; i++ ) {
+            assertEquals( extremes[i], decoded.getPacked( i ) );
+        }
+
+        ZtimeStampColumn column = new ZtimeStampColumn();
+        Arrays.stream( packed ).forEach( column::appendPacked );
+        assertArrayEquals( blocks.toByteArray(), ZtimeStampBlocks.encode( column ).toByteArray() );
+
+        assertEquals( 0, ZtimeStampBlocks.fromByteArray( ZtimeStampBlocks.encode( new long[0] ).toByteArray() ).size() );
+        assertThrows( IllegalArgumentException.class, () -> ZtimeStampBlocks.encode( new long[]{0} ) );
+        byte[] bytes = blocks.toByteArray().clone();
+        assertThrows( IllegalArgumentException.class, () -> ZtimeStampBlocks.fromByteArray( Arrays.copyOf( bytes, bytes.length - 1 ) ) );
+        bytes[Integer.BYTES * 3 + 7] ^= 3; // base precision code: Second (3) to Nanos (0)
+        assertThrows( IllegalArgumentException.class, () -> ZtimeStampBlocks.fromByteArray( bytes ) );
+        assertThrows( IllegalArgumentException.class, () -> ZtimeStampBlocks.fromByteArray( new byte[]{127, 0, 0, 0} ) );
+    }
+}
@@ -0,0 +1,93 @@
+package org.litesoft.utils;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.litesoft.utils.ISO8601ZtimeStamp.TimeLength;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ZtimeStampBucketsTest {
+
+    @Test
+    void _bucketOf() {
+        ISO8601ZtimeStamp ts = ISO8601ZtimeStamp.fromString( "2011-01-16T13:25:30.123+05:30" );
+        for ( TimeLength granularity : new TimeLength[]{TimeLength.Hour, TimeLength.Minute, TimeLength.Second, TimeLength.Millis} ) {
+            long bucket = ZtimeStampBuckets.bucketOf( ts, granularity );
+            ISO8601ZtimeStamp start = ZtimeStampBuckets.startOf( bucket, granularity );
+            assertEquals( ts.adjustTo( granularity ), start, granularity.name() );
+            assertEquals( bucket + 1, ZtimeStampBuckets.bucketOf( ZtimeStampBuckets.startOf( bucket + 1, granularity ), granularity ) );
+        }
+        assertEquals( "0001-01-01T00Z", ZtimeStampBuckets.startOf(
+                ZtimeStampBuckets.bucketOf( ISO8601ZtimeStamp.fromString( "0001-01-01T00:59:59.999Z" ), TimeLength.Hour ),
+                TimeLength.Hour ).getValue() ); // negative buckets floor
+        assertThrows( IllegalArgumentException.class, () -> ZtimeStampBuckets.bucketOf( ts, TimeLength.Micros ) );
+        assertThrows( IllegalArgumentException.class, () -> new ZtimeStampBuckets( 0, TimeLength.Hour ) );
+        assertThrows( IllegalArgumentException.class, () -> new ZtimeStampBuckets( 2 ) );
+        assertThrows( IllegalArgumentException.class, () -> new ZtimeStampBuckets( 2, TimeLength.Hour, TimeLength.Hour ) );
+    }
+
+    @Test
+    void _matchesStringKeys() {
+        ZtimeStampBuckets buckets = new ZtimeStampBuckets( 1 << 12, TimeLength.Hour, TimeLength.Minute );
+        Map<String, Long> hours = new HashMap<>();
+        Map<String, Long> minutes = new HashMap<>();
+        Random random = new Random( 22 );
+        for ( int i = 0; i < 5000; i++ ) { // ~2 days of events, in order
+            String raw = ISO8601ZtimeStamp.fromEpochMillis( 1295184330123L + (i * 37000L) + random.nextInt( 1000 ) ).getValue();
+            ISO8601ZtimeStamp ts = ISO8601ZtimeStamp.fromString( raw );
+            assertTrue( buckets.add( raw, i ) );
+            hours.merge( ts.toHour().getValue(), (long)i, Long::sum );
+            minutes.merge( ts.toMinute().getValue(), (long)i, Long::sum );
+        }
+        assertFalse( buckets.add( "2011-01-16T13", 1 ) );
+        assertFalse( buckets.add( ISO8601ZtimeStamp.fromString( null ) ) );
+        assertEquals( 2, buckets.getErrors() );
+        assertEquals( 0, buckets.getLate() );
+
+        assertEquals( hours.size(), buckets.forEach( TimeLength.Hour, ( granularity, bucket, count, sum ) ->
+                assertEquals( hours.get( ZtimeStampBuckets.startOf( bucket, granularity ).getValue() ), sum ) ) );
+        assertEquals( minutes.size(), buckets.forEach( TimeLength.Minute, ( granularity, bucket, count, sum ) ->
+                assertEquals( minutes.get( ZtimeStampBuckets.startOf( bucket, granularity ).getValue() ), sum ) ) );
+        assertThrows( IllegalArgumentException.class, () -> buckets.getNewest( TimeLength.Second ) );
+    }
+
+    @Test
+    void _rollingWindow() {
+        List<String> evicted = new ArrayList<>();
+        ZtimeStampBuckets buckets = new ZtimeStampBuckets( 3, ( granularity, bucket, count, sum ) ->
+                evicted.add( ZtimeStampBuckets.startOf( bucket, granularity ).getValue() + "=" + count + "/" + sum ),
+                                                           TimeLength.Hour );
+        assertEquals( Long.MIN_VALUE, buckets.getNewest( TimeLength.Hour ) );
+        buckets.add( at( "2011-01-16T10:15Z" ), 1 );
+        buckets.add( at( "2011-01-16T10:45Z" ), 2 );
+        buckets.add( at( "2011-01-16T12:00Z" ), 3 );
+        buckets.add( at( "2011-01-16T11:30Z" ), 4 ); // out of order, but in the window
+        assertTrue( evicted.isEmpty() );
+        long hour10 = ZtimeStampBuckets.bucketOf( at( "2011-01-16T10Z" ), TimeLength.Hour );
+        assertEquals( hour10 + 2, buckets.getNewest( TimeLength.Hour ) );
+        assertEquals( 2, buckets.getCount( TimeLength.Hour, hour10 ) );
+        assertEquals( 3, buckets.getSum( TimeLength.Hour, hour10 ) );
+
+        buckets.add( at( "2011-01-16T13:05Z" ), 5 ); // evicts 10
+        assertEquals( List.of( "2011-01-16T10Z=2/3" ), evicted );
+        assertEquals( 0, buckets.getCount( TimeLength.Hour, hour10 ) );
+        buckets.add( at( "2011-01-16T10:50Z" ), 6 ); // too late
+        assertEquals( 1, buckets.getLate() );
+
+        buckets.add( at( "2011-01-17T00Z" ), 7 ); // jumps past the whole window
+        assertEquals( List.of( "2011-01-16T10Z=2/3", "2011-01-16T11Z=1/4", "2011-01-16T12Z=1/3", "2011-01-16T13Z=1/5" ),
+                      evicted );
+        buckets.flush();
+        assertEquals( "2011-01-17T00Z=1/7", evicted.get( evicted.size() - 1 ) );
+        assertEquals( 0, buckets.forEach( TimeLength.Hour, ( granularity, bucket, count, sum ) -> fail() ) );
+    }
+
+    private static ISO8601ZtimeStamp at( String value ) {
+        return ISO8601ZtimeStamp.fromString( value );
+    }
+}
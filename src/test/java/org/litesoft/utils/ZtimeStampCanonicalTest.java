@@ -0,0 +1,57 @@
+package org.litesoft.utils;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ZtimeStampCanonicalTest {
+
+    @Test
+    void _words() {
+        assertTrue( ZtimeStampCanonical.isDate( word( "2011-01-" ) ) );
+        assertTrue( ZtimeStampCanonical.isDayTime( word( "16T13:25" ) ) );
+        assertTrue( ZtimeStampCanonical.isSecondMillis( word( ":30.123Z" ) ) );
+        assertTrue( ZtimeStampCanonical.isSecond( word( ":30Z" ) ) );
+        for ( String notDate : new String[]{"2011/01-", "2011-0:-", "2011-0/-", "201 -01-", "2011-01x"} ) {
+            assertFalse( ZtimeStampCanonical.isDate( word( notDate ) ), notDate );
+        }
+        assertFalse( ZtimeStampCanonical.isDayTime( word( "16t13:25" ) ) );
+        assertFalse( ZtimeStampCanonical.isSecondMillis( word( ":30.123z" ) ) );
+        assertFalse( ZtimeStampCanonical.isSecond( word( ":3AZ" ) ) );
+        assertEquals( ZtimeStampCanonical.NOT_ASCII, word( "2011-0１-" ) );
+
+        long dayTime = word( "16T13:25" );
+        assertEquals( 16, ZtimeStampCanonical.twoDigits( dayTime, 0 ) );
+        assertEquals( 13, ZtimeStampCanonical.twoDigits( dayTime, 3 ) );
+        assertEquals( 25, ZtimeStampCanonical.twoDigits( dayTime, 6 ) );
+        assertEquals( 123, ZtimeStampCanonical.threeDigits( word( ":30.123Z" ), 4 ) );
+    }
+
+    @Test
+    void _sameAsGeneral() {
+        ISO8601ZtimeStampParser parser = new ISO8601ZtimeStampParser( true );
+        Random random = new Random( 25 );
+        for ( int i = 0; i < 20000; i++ ) {
+            String input = random.nextInt( 10000 ) + "-" + two( random.nextInt( 14 ) ) + "-" + two( random.nextInt( 33 ) )
+                           + "T" + two( random.nextInt( 26 ) ) + ":" + two( random.nextInt( 62 ) ) + ":" + two( random.nextInt( 62 ) )
+                           + (random.nextBoolean() ? ("." + (random.nextInt( 900 ) + 100)) : "") + "Z";
+            input = "0".repeat( Math.max( 0, ((input.indexOf( '-' ) < 4) ? (4 - input.indexOf( '-' )) : 0) ) ) + input;
+            assertEquals( ISO8601ZtimeStamp.fromStringGeneral( input ), parser.parse( input ), input );
+        }
+        for ( String input : new String[]{"2012-02-29T23:59:59.999Z", "2011-02-29T00:00:00Z", "0000-01-01T00:00:00Z",
+                                          "9999-12-31T23:59:59.000Z", " 2011-01-16T13:25:30Z ", "2011-01-16T13:25:30.12Z",
+                                          "2011-01-16T24:00:00Z", "2011-01-16T13:25:30.1234"} ) {
+            assertEquals( ISO8601ZtimeStamp.fromStringGeneral( input ), parser.parse( input ), input );
+        }
+    }
+
+    private static String two( int value ) {
+        return (value < 10) ? ("0" + value) : ("" + value);
+    }
+
+    private static long word( String chars ) {
+        return ZtimeStampCanonical.word( chars, 0, chars.length() );
+    }
+}
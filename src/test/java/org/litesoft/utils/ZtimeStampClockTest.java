@@ -0,0 +1,54 @@
+package org.litesoft.utils;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ZtimeStampClockTest {
+    private static final long MILLIS = 1295184330123L; // 2011-01-16T13:25:30.123Z
+
+    @Test
+    void _exact() {
+        AtomicLong millis = new AtomicLong( MILLIS );
+        ZtimeStampClock clock = new ZtimeStampClock( millis::get );
+        assertFalse( clock.isCoarse() );
+        assertEquals( "2011-01-16T13:25:30.123Z", clock.now().getValue() );
+        assertSame( clock.now(), clock.now() ); // same milli
+
+        for ( long delta : new long[]{1, 876, 877, 1000, -MILLIS, -MILLIS - 1, 86400000L * 365 * 8000} ) {
+            millis.set( MILLIS + delta );
+            assertEquals( ISO8601ZtimeStamp.fromEpochMillis( millis.get() ), clock.now(), () -> "delta: " + delta );
+        }
+        for ( long other : new long[]{Long.MIN_VALUE, Long.MAX_VALUE, MILLIS} ) { // incl. outside years 1-9999
+            assertEquals( ISO8601ZtimeStamp.fromEpochMillis( other ), clock.at( other ) );
+        }
+        clock.close(); // no-op
+        assertEquals( "2011-01-16T13:25:30.123Z", clock.at( MILLIS ).getValue() );
+    }
+
+    @Test
+    void _coarse() {
+        AtomicLong millis = new AtomicLong( MILLIS );
+        try ( ZtimeStampClock clock = ZtimeStampClock.coarse( millis::get, 1000000 ) ) {
+            assertTrue( clock.isCoarse() );
+            ISO8601ZtimeStamp first = clock.now();
+            assertEquals( "2011-01-16T13:25:30.123Z", first.getValue() );
+            millis.set( MILLIS + 1 );
+            assertSame( first, clock.now() ); // stale until the next tick
+            clock.tick();
+            assertEquals( "2011-01-16T13:25:30.124Z", clock.now().getValue() );
+        }
+        assertThrows( IllegalArgumentException.class, () -> ZtimeStampClock.coarse( 0 ) );
+        assertThrows( IllegalArgumentException.class, () -> new ZtimeStampClock( null ) );
+    }
+
+    @Test
+    void _system() {
+        long before = System.currentTimeMillis();
+        long now = ISO8601ZtimeStamp.now().toEpochMillis();
+        assertTrue( (before <= now) && (now <= System.currentTimeMillis()) );
+        assertSame( ZtimeStampClock.system(), ZtimeStampClock.system() );
+    }
+}
@@ -0,0 +1,130 @@
+package org.litesoft.utils;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.litesoft.utils.ISO8601ZtimeStamp.TimeLength;
+import org.litesoft.utils.ZtimeStampError.Code;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ZtimeStampCodecTest {
+    private static final String[] VALUES = {
+            "2011-01-16T13Z",
+            "2011-01-16T13:25Z",
+            "2011-01-16T13:25:30Z",
+            "2011-01-16T13:25:30.000Z",
+            "2011-01-16T13:25:30.120Z",
+            "2011-01-16T13:25:30.123400Z",
+            "0001-01-01T00:00:00.000001Z",
+            "9999-12-31T23:59:59.999999Z",
+            "1969-12-31T23:59:59.999Z",
+            };
+
+    @Test
+    void _fixed() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream( bytes );
+        ByteBuffer buffer = ByteBuffer.allocate( (VALUES.length + 1) * ZtimeStampCodec.FIXED_LENGTH );
+        for ( String value : VALUES ) {
+            ISO8601ZtimeStamp ts = ISO8601ZtimeStamp.fromString( value );
+            assertEquals( ts, ZtimeStampCodec.fromFixed( ZtimeStampCodec.toFixed( ts ) ), value );
+            ZtimeStampCodec.writeFixed( out, ts );
+            ZtimeStampCodec.writeFixed( buffer, ts );
+        }
+        ISO8601ZtimeStamp error = ISO8601ZtimeStamp.fromString( "2011-01-16T13" );
+        ZtimeStampCodec.writeFixed( out, error );
+        ZtimeStampCodec.writeFixed( buffer, error );
+
+        DataInputStream in = new DataInputStream( new ByteArrayInputStream( bytes.toByteArray() ) );
+        buffer.flip();
+        for ( String value : VALUES ) {
+            assertEquals( ISO8601ZtimeStamp.fromString( value ), ZtimeStampCodec.readFixed( in ) );
+            assertEquals( ISO8601ZtimeStamp.fromString( value ), ZtimeStampCodec.readFixed( buffer ) );
+        }
+        for ( ISO8601ZtimeStamp decoded : new ISO8601ZtimeStamp[]{ZtimeStampCodec.readFixed( in ), ZtimeStampCodec.readFixed( buffer )} ) {
+            assertEquals( Code.TIME_NO_Z_OR_OFFSET, decoded.getErrorCode() );
+            assertEquals( ISO8601ZtimeStamp.TIME_NO_Z_OR_OFFSET, decoded.getError() );
+            assertNull( decoded.getTimeLength() );
+        }
+        assertEquals( 0, in.available() );
+        assertFalse( buffer.hasRemaining() );
+
+        assertThrows( IllegalArgumentException.class,
+                      () -> ZtimeStampCodec.toFixed( ISO8601ZtimeStamp.fromString( "2011-01-16T13:25:30.123456789Z" ) ) );
+        assertThrows( IllegalArgumentException.class, () -> ZtimeStampCodec.fromFixed( 0 ) );
+        assertThrows( IllegalArgumentException.class, () -> ZtimeStampCodec.fromFixed( Long.MIN_VALUE ) );
+        for ( long bad : new long[]{6, 14, 7, 1L << 50, (1L << 50) | 5, // bad precision codes, month & day of 0
+                                    ISO8601ZtimeStamp.fromString( "2011-01-16T13:25Z" ).toPackedLong() + (1L << 23), // seconds of an Minute
+                                    PackedZtimeStamp.pack( 2011, 2, 28, 0, 0, 0, 0, TimeLength.Hour ) + (1L << 41)} ) { // Feb 29
+            assertThrows( IllegalArgumentException.class, () -> ZtimeStampCodec.fromFixed( bad ), Long.toString( bad ) );
+        }
+    }
+
+    @Test
+    void _deltas() throws IOException {
+        Random random = new Random( 23 );
+        ISO8601ZtimeStamp[] timeStamps = new ISO8601ZtimeStamp[1000];
+        int stringLengths = 0;
+        long millis = 1295184330123L;
+        for ( int i = 0; i < timeStamps.length; i++ ) {
+            millis += random.nextInt( 2000 );
+            ISO8601ZtimeStamp ts = ISO8601ZtimeStamp.fromEpochMillis( millis );
+            if ( (i % 100) == 7 ) {
+                ts = ISO8601ZtimeStamp.fromString( "2011-13-16T13Z" );
+            } else if ( (i % 100) == 8 ) {
+                ts = ISO8601ZtimeStamp.fromEpochNanos( (millis * 1000000) + 1 );
+            } else if ( (i % 100) == 9 ) {
+                ts = ts.toMinute();
+            } else if ( (i % 100) == 10 ) {
+                ts = ISO8601ZtimeStamp.fromString( "1601-02-03T04:05:06.7+14:00" ); // backwards
+            }
+            timeStamps[i] = ts;
+            stringLengths += ts.getValue().length();
+        }
+        byte[] deltas = ZtimeStampCodec.toDeltas( timeStamps );
+        assertTrue( (deltas.length * 5) < stringLengths, deltas.length + " vs " + stringLengths );
+        assertDecoded( timeStamps, ZtimeStampCodec.fromDeltas( deltas ) );
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream( bytes );
+        ZtimeStampCodec.writeDeltas( out, timeStamps );
+        out.writeInt( 42 );
+        DataInputStream in = new DataInputStream( new ByteArrayInputStream( bytes.toByteArray() ) );
+        assertDecoded( timeStamps, ZtimeStampCodec.readDeltas( in ) );
+        assertEquals( 42, in.readInt() );
+
+        ByteBuffer buffer = ByteBuffer.allocate( deltas.length + 4 );
+        ZtimeStampCodec.writeDeltas( buffer, timeStamps ).putInt( 42 ).flip();
+        assertDecoded( timeStamps, ZtimeStampCodec.readDeltas( buffer ) );
+        assertEquals( 42, buffer.getInt() );
+
+        assertEquals( 0, ZtimeStampCodec.fromDeltas( ZtimeStampCodec.toDeltas( new ISO8601ZtimeStamp[0] ) ).length );
+        assertThrows( IllegalArgumentException.class, () -> ZtimeStampCodec.fromDeltas( new byte[]{2, 1, 0} ) );
+        assertThrows( IllegalArgumentException.class, () -> ZtimeStampCodec.fromDeltas( new byte[]{1, 1, 6} ) ); // bad tag
+        assertThrows( IllegalArgumentException.class, () -> ZtimeStampCodec.fromDeltas( new byte[]{1, 1, 0, 0} ) );
+        assertThrows( IllegalArgumentException.class, () -> ZtimeStampCodec.readDeltas( ByteBuffer.wrap( new byte[]{(byte)0x80} ) ) );
+        assertThrows( IllegalArgumentException.class, () -> ZtimeStampCodec.readDeltas( ByteBuffer.wrap( new byte[]{1} ) ) );
+        byte[] hugeLength = {1, (byte)0xFF, (byte)0xFF, (byte)0xFF, (byte)0xFF, 0x07, 0}; // Integer.MAX_VALUE bytes
+        assertThrows( EOFException.class, () -> ZtimeStampCodec.readDeltas( new DataInputStream( new ByteArrayInputStream( hugeLength ) ) ) );
+    }
+
+    private static void assertDecoded( ISO8601ZtimeStamp[] expected, ISO8601ZtimeStamp[] decoded ) {
+        assertEquals( expected.length, decoded.length );
+        for ( int i = 0; i < expected.length; i++ ) {
+            if ( expected[i].hasError() ) {
+                assertEquals( expected[i].getErrorCode(), decoded[i].getErrorCode() );
+            } else {
+                assertEquals( expected[i], decoded[i] );
+                assertEquals( expected[i].getTimeLength(), decoded[i].getTimeLength() );
+            }
+        }
+    }
+}
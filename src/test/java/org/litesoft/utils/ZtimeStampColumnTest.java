@@ -0,0 +1,70 @@
+package org.litesoft.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ZtimeStampColumnTest {
+
+    @Test
+    void _appendAndGet() {
+        ZtimeStampColumn column = new ZtimeStampColumn( 0 );
+        List<ISO8601ZtimeStamp> expected = new ArrayList<>();
+        Random random = new Random( 21 );
+        for ( int i = 0; i < 1000; i++ ) {
+            ISO8601ZtimeStamp ts = ISO8601ZtimeStamp.fromEpochMillis( 1295184330123L + random.nextInt( 1000000 ) );
+            column.append( ts );
+            expected.add( ts );
+        }
+        assertEquals( 1000, column.size() );
+        assertTrue( column.capacity() >= 1000 );
+        assertFalse( column.isSorted() );
+        for ( int i = 0; i < expected.size(); i++ ) {
+            assertEquals( expected.get( i ), column.get( i ) );
+        }
+        assertThrows( IllegalStateException.class, () -> column.countBetween( expected.get( 0 ), expected.get( 1 ) ) );
+
+        column.sort();
+        expected.sort( null );
+        assertTrue( column.isSorted() );
+        for ( int i = 0; i < expected.size(); i++ ) {
+            assertEquals( expected.get( i ), column.get( i ) );
+        }
+        assertThrows( IndexOutOfBoundsException.class, () -> column.get( 1000 ) );
+        assertThrows( IllegalArgumentException.class, () -> column.append( ISO8601ZtimeStamp.fromString( "2011-01-16T13" ) ) );
+        assertThrows( IllegalArgumentException.class,
+                      () -> column.append( ISO8601ZtimeStamp.fromString( "2011-01-16T13:25:30.123456789Z" ) ) );
+        column.clear();
+        assertEquals( 0, column.size() );
+    }
+
+    @Test
+    void _range() {
+        ZtimeStampColumn column = new ZtimeStampColumn();
+        for ( String value : new String[]{"2011-01-16T12:59:59.999Z", "2011-01-16T13:00Z", "2011-01-16T13Z",
+                                          "2011-01-16T13:00:00.000001Z", "2011-01-16T13:30Z", "2011-01-16T14:00:00.001Z"} ) {
+            column.append( ISO8601ZtimeStamp.fromString( value ) );
+        }
+        assertTrue( column.isSorted() );
+        assertEquals( 5, column.countBetween( at( "2011-01-16T12Z" ), at( "2011-01-16T14Z" ) ) );
+        assertEquals( 2, column.countBetween( at( "2011-01-16T13Z" ), at( "2011-01-16T13Z" ) ) ); // both forms of 13:00
+        assertEquals( 2, column.countBetween( at( "2011-01-16T13:00:00.000000001Z" ), at( "2011-01-16T13:30Z" ) ) );
+        assertEquals( 0, column.countBetween( at( "2011-01-16T14Z" ), at( "2011-01-16T13Z" ) ) );
+        assertEquals( 1, column.firstRowFrom( at( "2011-01-16T13:00:00.000Z" ) ) );
+        assertEquals( 6, column.firstRowAfter( at( "2011-01-16T15Z" ) ) );
+
+        List<String> found = new ArrayList<>();
+        assertEquals( 2, column.forEachBetween( at( "2011-01-16T13:15Z" ), at( "2011-01-17T00Z" ),
+                                                packed -> found.add( PackedZtimeStamp.toString( packed ) ) ) );
+        assertEquals( List.of( "2011-01-16T13:30Z", "2011-01-16T14:00:00.001Z" ), found );
+        assertThrows( IllegalArgumentException.class, () -> column.firstRowFrom( at( "2011-01-16T13" ) ) );
+    }
+
+    private static ISO8601ZtimeStamp at( String value ) {
+        return ISO8601ZtimeStamp.fromString( value );
+    }
+}
@@ -0,0 +1,69 @@
+package org.litesoft.utils;
+
+import org.junit.jupiter.api.Test;
+import org.litesoft.utils.ZtimeStampError.Code;
+import org.litesoft.utils.ZtimeStampError.Field;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ZtimeStampErrorTest {
+
+    @Test
+    void _codes() {
+        check( null, Code.TO_PARSE_WAS_NULL, null, -1 );
+        check( "  ", Code.TO_PARSE_WAS_EMPTY, null, 0 );
+        check( " 2011-01-16", Code.TO_PARSE_NO_T, null, 1 );
+        check( "2011-01T13Z", Code.DATE_NOT_3_FIELDS, null, 0 );
+        check( "2011-13-16T13Z", Code.INT_GT_MAX, Field.MONTH, 5 );
+        check( "2011-01-0T13Z", Code.INT_LT_MIN, Field.DAY, 8 );
+        check( "2011-01-16T1x:00Z", Code.INT_PARSE_ERROR, Field.HOURS, 11 );
+        check( "2011-01-16T13:25:30.12x4Z", Code.INT_PARSE_ERROR, Field.MILLIS, 20 );
+        check( "2011-01-16T13:25:30.1234x6Z", Code.INT_PARSE_ERROR, Field.MICROS, 23 );
+        check( "2011-01-16T13:25", Code.TIME_NO_Z_OR_OFFSET, null, 16 );
+        check( "2011-01-16T13Zx", Code.TIME_STUFF_AFTER_Z, null, 14 );
+        check( "2011-01-16T13+1:2:3", Code.TIME_TOO_MANY_OFFSET_COLONS, null, 17 );
+        check( "2011-01-16T13+1-2", Code.TIME_MULTIPLE_OFFSETS, null, 15 );
+        check( "2011-01-16T13:00+1:20", Code.TIME_MINUTE_OFFSET_NOT_QUARTER_HOUR, Field.OFFSET_MINUTES, 19 );
+        check( "2011-01-16T13+15", Code.INT_GT_MAX, Field.OFFSET_HOURS, 14 );
+        check( "2011-01-16T1:2:3:4Z", Code.TIME_GT_3_FIELDS, null, 11 );
+        check( "2011-01-16T13:25:30.1234567890Z", Code.TIME_FRACTIONAL_SECONDS_TOO_LONG, null, 20 );
+        check( "2011-01-16T13+1:30", Code.TIME_NO_MINUTES_TO_ADJUST, null, 13 );
+        check( "9999-12-31T23:00+1", Code.DATE_YEAR_ROLLED_GT_9999, null, 16 );
+        check( "0001-01-01T00:00-1", Code.DATE_YEAR_ROLLED_LT_1, null, 16 );
+    }
+
+    private void check( String input, Code expectedCode, Field expectedField, int expectedPosition ) {
+        ISO8601ZtimeStamp ts = ISO8601ZtimeStamp.fromString( input );
+        assertTrue( ts.hasError(), input );
+        assertEquals( expectedCode, ts.getErrorCode(), input );
+        ZtimeStampError error = ts.getErrorDetail();
+        assertEquals( expectedField, error.getField(), input );
+        assertEquals( expectedPosition, error.getPosition(), input );
+        ISO8601ZtimeStamp general = ISO8601ZtimeStamp.fromStringGeneral( input );
+        assertEquals( general.getError(), error.getMessage(), input );
+        assertEquals( general.getValue(), error.getValue(), input );
+        assertTrue( error.getMessage().contains( expectedCode.getText() ), input );
+        assertSame( error.getMessage(), error.getMessage(), "rendered once" );
+    }
+
+    @Test
+    void _fromMessage() {
+        String input = "２011-13-16T13Z"; // non-ASCII (full width digit) goes to the general parsing
+        ISO8601ZtimeStamp ts = ISO8601ZtimeStamp.fromString( input );
+        assertEquals( Code.INT_GT_MAX, ts.getErrorCode() );
+        assertEquals( Field.MONTH, ts.getErrorDetail().getField() );
+        assertEquals( -1, ts.getErrorDetail().getPosition() );
+        assertEquals( "month date field of '13' -- " + ISO8601ZtimeStamp.INT_GT_MAX + " of 12", ts.getError() );
+        assertEquals( input, ts.getValue() );
+
+        assertEquals( Code.TIME_LENGTH_NO_MATCH, ZtimeStampError.fromMessage( ISO8601ZtimeStamp.TIME_LENGTH_NO_MATCH, "x" ).getCode() );
+        assertThrows( IllegalArgumentException.class, () -> ZtimeStampError.fromMessage( "?", "x" ) );
+    }
+
+    @Test
+    void _noError() {
+        ISO8601ZtimeStamp ts = ISO8601ZtimeStamp.fromString( "2011-01-16T13Z" );
+        assertNull( ts.getErrorCode() );
+        assertNull( ts.getErrorDetail() );
+    }
+}
@@ -0,0 +1,96 @@
+package org.litesoft.utils;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.litesoft.utils.ISO8601ZtimeStamp.TimeLength;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ZtimeStampFileNormalizerTest {
+    private static final String INPUT = "" +
+                                        "a,2011-01-16T13:25:30.123456789Z,x\n" +
+                                        "b, 2011-12-31T23:35+0:30 ,y\r\n" +
+                                        "c,2011-01-16T13,z\n" +
+                                        "d\n" +
+                                        "e,2011-01-16T13Z+ünïcødé\n" +
+                                        "f,２011-01-16T13Z\n" +
+                                        "\n" +
+                                        "g,11-1-2T0:5:6.7Z";
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void _normalize() throws IOException {
+        String expectedOut = "" +
+                             "a,2011-01-16T13:25:30.123456789Z,x\n" +
+                             "b,2012-01-01T00:05Z,y\r\n" +
+                             "e,2011-01-16T13Z\n" +
+                             "f,2011-01-16T13Z\n" + // full width digit (like Integer.parseInt)
+                             "g,0011-01-02T00:05:06.700Z";
+        String expectedRejects = "" +
+                                 "c,2011-01-16T13,z\t" + ISO8601ZtimeStamp.TIME_NO_Z_OR_OFFSET + "\n" +
+                                 "d\t" + ZtimeStampFileNormalizer.NO_TIMESTAMP_FIELD + "\n" +
+                                 "\t" + ZtimeStampFileNormalizer.NO_TIMESTAMP_FIELD + "\n";
+        for ( int windowSize : new int[]{40, 64, 1000, ZtimeStampFileNormalizer.DEFAULT_WINDOW_SIZE} ) {
+            ZtimeStampFileNormalizer.Summary summary = check( new ZtimeStampFileNormalizer( 1, ',', null, windowSize ),
+                                                              expectedOut, expectedRejects );
+            assertEquals( 8, summary.getLines() );
+            assertEquals( 3, summary.getRejected() );
+            assertEquals( 5, summary.getNormalized() );
+        }
+    }
+
+    @Test
+    void _normalizeParallel() throws IOException {
+        StringBuilder sb = new StringBuilder();
+        for ( int i = 0; i < 5000; i++ ) {
+            sb.append( i ).append( ',' ).append( INPUT.split( "\n" )[i % 8] ).append( '\n' );
+        }
+        Path in = write( "in.txt", sb.toString() );
+        ZtimeStampFileNormalizer normalizer = new ZtimeStampFileNormalizer( 2, ',', TimeLength.Second, 1 << 14 );
+        ZtimeStampFileNormalizer.Summary expected = normalizer.normalize( in, dir.resolve( "out1.txt" ), dir.resolve( "rejects1.txt" ) );
+        for ( int parallelism : new int[]{1, 3, 8} ) {
+            ZtimeStampFileNormalizer.Summary actual = normalizer.normalize( in, dir.resolve( "out.txt" ), dir.resolve( "rejects.txt" ), parallelism );
+            assertEquals( expected.toString(), actual.toString() );
+            assertEquals( Files.readString( dir.resolve( "out1.txt" ) ), Files.readString( dir.resolve( "out.txt" ) ) );
+            assertEquals( Files.readString( dir.resolve( "rejects1.txt" ) ), Files.readString( dir.resolve( "rejects.txt" ) ) );
+        }
+        assertEquals( 5000, expected.getLines() );
+    }
+
+    @Test
+    void _normalizeToMillis() throws IOException {
+        check( new ZtimeStampFileNormalizer( 0, '|', TimeLength.Millis ),
+               "2011-01-16T13:00:00.000Z|a\n2011-01-16T13:25:30.123Z\n",
+               "" );
+    }
+
+    private ZtimeStampFileNormalizer.Summary check( ZtimeStampFileNormalizer normalizer, String expectedOut, String expectedRejects )
+            throws IOException {
+        Path in = write( "in.txt", (normalizer.getDelimiter() == ',') ? INPUT :
+                                   "2011-01-16T13Z|a\n2011-01-16T13:25:30.123456Z\n" );
+        Path out = dir.resolve( "out.txt" );
+        Path rejects = dir.resolve( "rejects.txt" );
+        ZtimeStampFileNormalizer.Summary summary = normalizer.normalize( in, out, rejects );
+        assertEquals( expectedOut, Files.readString( out ) );
+        assertEquals( expectedRejects, Files.readString( rejects ) );
+        return summary;
+    }
+
+    @Test
+    void _lineLongerThanWindow() throws IOException {
+        Path in = write( "in.txt", INPUT );
+        ZtimeStampFileNormalizer normalizer = new ZtimeStampFileNormalizer( 1, ',', null, 20 );
+        assertThrows( IOException.class, () -> normalizer.normalize( in, dir.resolve( "out.txt" ), dir.resolve( "rejects.txt" ) ) );
+    }
+
+    private Path write( String name, String content ) throws IOException {
+        return Files.write( dir.resolve( name ), content.getBytes( StandardCharsets.UTF_8 ) );
+    }
+}
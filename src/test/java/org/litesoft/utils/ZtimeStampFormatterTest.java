@@ -0,0 +1,57 @@
+package org.litesoft.utils;
+
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.Test;
+import org.litesoft.utils.ISO8601ZtimeStamp.TimeLength;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ZtimeStampFormatterTest {
+
+    @Test
+    void _format() {
+        check( "0001-01-01T00Z", 1, 1, 1, 0, 0, 0, 0, TimeLength.Hour );
+        check( "2011-01-16T13:25Z", 2011, 1, 16, 13, 25, 0, 0, TimeLength.Minute );
+        check( "2011-01-16T13:25:30Z", 2011, 1, 16, 13, 25, 30, 0, TimeLength.Second );
+        check( "2011-01-16T13:25:30.123Z", 2011, 1, 16, 13, 25, 30, 123456789, TimeLength.Millis );
+        check( "2011-01-16T13:25:30.123456Z", 2011, 1, 16, 13, 25, 30, 123456789, TimeLength.Micros );
+        check( "2011-01-16T13:25:30.123456789Z", 2011, 1, 16, 13, 25, 30, 123456789, TimeLength.Nanos );
+        check( "9999-12-31T23:59:59.000000001Z", 9999, 12, 31, 23, 59, 59, 1, TimeLength.Nanos );
+        check( "0909-09-09T09:09:09.090909009Z", 909, 9, 9, 9, 9, 9, 90909009, TimeLength.Nanos );
+    }
+
+    private void check( String expected, int year, int month, int day, int hour, int minute, int second,
+                        int nanoOfSecond, TimeLength precision ) {
+        byte[] b = new byte[ZtimeStampFormatter.MAX_LENGTH + 2];
+        int end = ZtimeStampFormatter.format( b, 2, year, month, day, hour, minute, second, nanoOfSecond, precision );
+        assertEquals( expected, new String( b, 2, end - 2, StandardCharsets.US_ASCII ) );
+
+        char[] c = new char[ZtimeStampFormatter.MAX_LENGTH + 1];
+        end = ZtimeStampFormatter.format( c, 1, year, month, day, hour, minute, second, nanoOfSecond, precision );
+        assertEquals( expected, new String( c, 1, end - 1 ) );
+    }
+
+    @Test
+    void _formatPacked() {
+        for ( String value : new String[]{"2011-01-16T13Z", "2011-01-16T13:25:30.120Z", "0001-02-03T04:05:06.000789Z"} ) {
+            long packed = ISO8601ZtimeStamp.fromString( value ).toPackedLong();
+            byte[] b = new byte[ZtimeStampFormatter.MAX_LENGTH];
+            assertEquals( value, new String( b, 0, ZtimeStampFormatter.formatPacked( packed, b, 0 ), StandardCharsets.US_ASCII ) );
+            char[] c = new char[ZtimeStampFormatter.MAX_LENGTH];
+            assertEquals( value, new String( c, 0, ZtimeStampFormatter.formatPacked( packed, c, 0 ) ) );
+        }
+    }
+
+    @Test
+    void _append() {
+        StringBuilder sb = new StringBuilder();
+        ZtimeStampFormatter.append( sb, 7, 1 );
+        ZtimeStampFormatter.append( sb, 7, 2 );
+        ZtimeStampFormatter.append( sb, 7, 3 );
+        ZtimeStampFormatter.append( sb, 7, 4 );
+        ZtimeStampFormatter.append( sb, 9999, 4 );
+        ZtimeStampFormatter.append( sb, 999, 3 );
+        assertEquals( "7" + "07" + "007" + "0007" + "9999" + "999", sb.toString() );
+    }
+}
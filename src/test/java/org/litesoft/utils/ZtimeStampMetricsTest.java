@@ -0,0 +1,69 @@
+package org.litesoft.utils;
+
+import org.junit.jupiter.api.Test;
+import org.litesoft.utils.ZtimeStampError.Code;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ZtimeStampMetricsTest {
+
+    @Test
+    void _counts() {
+        ZtimeStampMetrics metrics = new ZtimeStampMetrics( true );
+        ZtimeStampMetrics.install( metrics );
+        try {
+            ISO8601ZtimeStamp.fromString( "2011-01-16T13:25:30Z" );
+            ISO8601ZtimeStamp.fromString( "2011-01-16T13:25:30+00:00" );
+            ISO8601ZtimeStamp.fromString( "2011-01-16T13:25Z+11:59" ); // ignored offset
+            ISO8601ZtimeStamp.fromString( "2011-01-16T13:25+1" );
+            ISO8601ZtimeStamp.fromString( "2011-01-16T23:35+0:30" ); // day
+            ISO8601ZtimeStamp.fromString( "2011-12-31T23:35+0:30" ); // year
+            ISO8601ZtimeStamp.fromString( "２011-01-16T13Z" ); // non-ASCII (general parsing)
+            ISO8601ZtimeStamp.fromString( null );
+            ISO8601ZtimeStamp.fromString( "2011-01-16T13" );
+            ISO8601ZtimeStamp.isValid( "9999-12-31T23:00+1" );
+            ISO8601ZtimeStamp.normalizeAll( new String[]{"2011-01-16T13Z", "2011-13-16T13Z"}, new String[2], null );
+        }
+        finally {
+            ZtimeStampMetrics.install( null );
+        }
+        ISO8601ZtimeStamp.fromString( "2011-01-16T13Z" ); // not recorded
+
+        assertEquals( 8, metrics.getSuccesses() );
+        assertEquals( 3, metrics.getOffsets() );
+        assertEquals( 5, metrics.getZulus() );
+        assertEquals( 2, metrics.getDayRollOvers() );
+        assertEquals( 1, metrics.getYearRollOvers() );
+        assertEquals( 4, metrics.getErrors() );
+        assertEquals( 1, metrics.getErrors( Code.TO_PARSE_WAS_NULL ) );
+        assertEquals( 1, metrics.getErrors( Code.TIME_NO_Z_OR_OFFSET ) );
+        assertEquals( 1, metrics.getErrors( Code.DATE_YEAR_ROLLED_GT_9999 ) );
+        assertEquals( 1, metrics.getErrors( Code.INT_GT_MAX ) );
+        assertEquals( "successes: 8 (offsets: 3, zulus: 5, day roll overs: 2, year roll overs: 1), errors: 4",
+                      metrics.toString() );
+
+        long timed = 0;
+        for ( int i = 0; i < ZtimeStampMetrics.LATENCY_BUCKETS; i++ ) {
+            timed += metrics.getLatencyCount( i );
+        }
+        assertEquals( 12, timed );
+        assertTrue( metrics.getLatencyPercentile( 50 ) <= metrics.getLatencyPercentile( 100 ) );
+        assertTrue( metrics.getLatencyPercentile( 100 ) > 0 );
+
+        metrics.reset();
+        assertEquals( 0, metrics.getSuccesses() );
+        assertEquals( 0, metrics.getErrors() );
+        assertEquals( 0, metrics.getLatencyPercentile( 99 ) );
+        assertNull( ZtimeStampMetrics.installed() );
+    }
+
+    @Test
+    void _noLatency() {
+        ZtimeStampMetrics metrics = new ZtimeStampMetrics( false );
+        metrics.recordSuccess( false, 0 );
+        assertFalse( metrics.isRecordingLatency() );
+        assertEquals( 0, metrics.getLatencyCount( 0 ) );
+        assertEquals( 0, metrics.getLatencyPercentile( 50 ) );
+        assertEquals( 1, metrics.getZulus() );
+    }
+}
@@ -0,0 +1,50 @@
+package org.litesoft.utils;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ZtimeStampOffsetsTest {
+
+    @Test
+    void _lookup() {
+        check( "+05:30", 5, 30 );
+        check( "-07", -7, 0 );
+        check( "-0:45", 0, -45 );
+        check( "+14:45", 14, 45 );
+        check( "-00:0", 0, 0 );
+        for ( String miss : new String[]{"+15", "+05:20", "+5:3", " +5", "+05:30:00", "05", "+", "+0530", "+５"} ) {
+            assertEquals( ZtimeStampOffsets.MISS, ZtimeStampOffsets.lookup( miss, 0, miss.length() ), miss );
+        }
+        assertEquals( 330, minutes( ZtimeStampOffsets.lookup( "T13+05:30Z", 3, 9 ) ) );
+    }
+
+    @Test
+    void _sameAsGeneral() {
+        String[] times = {"2011-12-31T23:35", "0001-01-01T00:10", "9999-12-31T23:50", "2012-02-28T23:59:59.5", "2011-01-16T13"};
+        for ( String time : times ) {
+            for ( char sign : new char[]{'+', '-'} ) {
+                for ( int hours = 0; hours <= 15; hours++ ) {
+                    for ( String minutes : new String[]{"", ":0", ":00", ":15", ":30", ":45", ":20", ": 30"} ) {
+                        for ( String hoursText : new String[]{"" + hours, ((hours < 10) ? "0" : "") + hours} ) {
+                            for ( String input : new String[]{time + sign + hoursText + minutes,
+                                                              time + sign + hoursText + minutes + "Z"} ) {
+                                assertEquals( ISO8601ZtimeStamp.fromStringGeneral( input ), ISO8601ZtimeStamp.fromString( input ), input );
+                            }
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    private static void check( String offset, int hours, int minutes ) {
+        int found = ZtimeStampOffsets.lookup( offset, 0, offset.length() );
+        assertEquals( hours, ZtimeStampOffsets.hours( found ), offset );
+        assertEquals( minutes, ZtimeStampOffsets.minutes( found ), offset );
+    }
+
+    private static int minutes( int offset ) {
+        return (ZtimeStampOffsets.hours( offset ) * 60) + ZtimeStampOffsets.minutes( offset );
+    }
+}
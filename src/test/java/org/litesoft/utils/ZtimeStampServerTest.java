@@ -0,0 +1,107 @@
+package org.litesoft.utils;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.Test;
+import org.litesoft.utils.ISO8601ZtimeStamp.TimeLength;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ZtimeStampServerTest {
+
+    @Test
+    void _pipelinedAndKeepAlive() throws IOException {
+        try ( ZtimeStampServer server = ZtimeStampServer.start( 0, null );
+              Socket socket = new Socket( server.getAddress().getAddress(), server.getAddress().getPort() ) ) {
+            OutputStream out = socket.getOutputStream();
+            BufferedReader in = new BufferedReader( new InputStreamReader( socket.getInputStream(), StandardCharsets.UTF_8 ) );
+
+            out.write( "2011-01-16T13:25:30Z\n2011-12-31T23:35+0:30\r\n2011-01-16T13\n\n２011-01-16T13Z\n"
+                               .getBytes( StandardCharsets.UTF_8 ) );
+            out.flush();
+            assertEquals( "2011-01-16T13:25:30Z", in.readLine() );
+            assertEquals( "2012-01-01T00:05Z", in.readLine() );
+            assertEquals( "ERROR TIME_NO_Z_OR_OFFSET", in.readLine() );
+            assertEquals( "ERROR TO_PARSE_WAS_EMPTY", in.readLine() );
+            assertEquals( "2011-01-16T13Z", in.readLine() );
+
+            // same connection, a line split across writes, and a too long line
+            out.write( "2011-01-16T1".getBytes( StandardCharsets.US_ASCII ) );
+            out.flush();
+            out.write( "3:25Z\n".getBytes( StandardCharsets.US_ASCII ) );
+            out.write( new byte[ZtimeStampServer.BUFFER_SIZE * 2] );
+            out.write( "\n2011-01-16T13Z".getBytes( StandardCharsets.US_ASCII ) );
+            out.flush();
+            assertEquals( "2011-01-16T13:25Z", in.readLine() );
+            assertEquals( ZtimeStampServer.ERROR_PREFIX + ZtimeStampServer.LINE_TOO_LONG, in.readLine() );
+            socket.shutdownOutput(); // final line without a newline
+            assertEquals( "2011-01-16T13Z", in.readLine() );
+            assertNull( in.readLine() );
+        }
+    }
+
+    @Test
+    void _target() throws IOException {
+        try ( ZtimeStampServer server = ZtimeStampServer.start( 0, TimeLength.Millis );
+              Socket socket = new Socket( server.getAddress().getAddress(), server.getAddress().getPort() ) ) {
+            socket.getOutputStream().write( "2011-01-16T13Z\n".getBytes( StandardCharsets.US_ASCII ) );
+            BufferedReader in = new BufferedReader( new InputStreamReader( socket.getInputStream(), StandardCharsets.UTF_8 ) );
+            assertEquals( "2011-01-16T13:00:00.000Z", in.readLine() );
+            assertEquals( TimeLength.Millis, server.getTarget() );
+            assertEquals( ZtimeStampServer.MAX_CONNECTIONS, server.getMaxConnections() );
+            assertTrue( server.getAddress().getAddress().isLoopbackAddress() );
+        }
+    }
+
+    @Test
+    void _maxConnections() throws Exception {
+        InetSocketAddress loopback = new InetSocketAddress( InetAddress.getLoopbackAddress(), 0 );
+        assertThrows( IllegalArgumentException.class, () -> ZtimeStampServer.start( loopback, null, 0 ) );
+        try ( ZtimeStampServer server = ZtimeStampServer.start( loopback, null, 1 ) ) {
+            try ( Socket first = new Socket( server.getAddress().getAddress(), server.getAddress().getPort() ) ) {
+                assertEquals( "2011-01-16T13Z", request( first, "2011-01-16T13Z" ) ); // being served
+
+                try ( Socket second = new Socket( server.getAddress().getAddress(), server.getAddress().getPort() ) ) {
+                    BufferedReader in = new BufferedReader( new InputStreamReader( second.getInputStream(), StandardCharsets.UTF_8 ) );
+                    assertEquals( ZtimeStampServer.ERROR_PREFIX + ZtimeStampServer.TOO_MANY_CONNECTIONS, in.readLine() );
+                    assertNull( in.readLine() );
+                }
+            }
+            for ( int attempt = 1; true; attempt++ ) { // the first's permit is released once its close is noticed
+                String response;
+                try ( Socket third = new Socket( server.getAddress().getAddress(), server.getAddress().getPort() ) ) {
+                    response = request( third, "2011-01-16T13Z" );
+                }
+                catch ( IOException e ) { // refused (closed) while writing
+                    response = e.toString();
+                }
+                if ( "2011-01-16T13Z".equals( response ) || (attempt == 50) ) {
+                    assertEquals( "2011-01-16T13Z", response );
+                    break;
+                }
+                Thread.sleep( 20 );
+            }
+        }
+    }
+
+    @Test
+    void _acceptBackOff() {
+        assertEquals( 1, ZtimeStampServer.acceptBackOffMillis( 1 ) );
+        assertEquals( 2, ZtimeStampServer.acceptBackOffMillis( 2 ) );
+        assertEquals( 512, ZtimeStampServer.acceptBackOffMillis( 10 ) );
+        assertEquals( ZtimeStampServer.MAX_ACCEPT_BACK_OFF_MILLIS, ZtimeStampServer.acceptBackOffMillis( 11 ) );
+        assertEquals( ZtimeStampServer.MAX_ACCEPT_BACK_OFF_MILLIS, ZtimeStampServer.acceptBackOffMillis( Integer.MAX_VALUE ) );
+    }
+
+    private static String request( Socket socket, String line ) throws IOException {
+        socket.getOutputStream().write( (line + "\n").getBytes( StandardCharsets.US_ASCII ) );
+        return new BufferedReader( new InputStreamReader( socket.getInputStream(), StandardCharsets.UTF_8 ) ).readLine();
+    }
+}